@@ -0,0 +1,40 @@
+package fi.esupponen.jsonparser.benchmarks;
+
+import fi.esupponen.jsonparser.JsonFile;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building documents through the add and addArray overloads.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConstructionBenchmark {
+
+    @Param({Documents.WIDE, Documents.DEEP, Documents.NUMBERS, Documents.RECORDS})
+    String shape;
+
+    @Param({"100", "10000"})
+    int size;
+
+    @Benchmark
+    public JsonFile build() {
+        return Documents.create(shape, size);
+    }
+}
@@ -0,0 +1,36 @@
+package fi.esupponen.jsonparser.benchmarks;
+
+import java.io.OutputStream;
+
+/**
+ * Stream that throws the bytes away and only counts them.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class CountingOutputStream extends OutputStream {
+
+    /**
+     * Number of bytes written so far.
+     */
+    long count;
+
+    @Override
+    public void write(int b) {
+        count++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) {
+        count += len;
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return  count
+     */
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,165 @@
+package fi.esupponen.jsonparser.benchmarks;
+
+import fi.esupponen.jsonparser.JsonFile;
+import fi.esupponen.jsonparser.JsonUnit;
+import fi.esupponen.jsonparser.NumberUnit;
+import fi.esupponen.jsonparser.ObjectUnit;
+import fi.esupponen.jsonparser.StringUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the documents the benchmarks run on.
+ *
+ * Every shape is built only through the public API of the library, and the
+ * values come from a random generator with a fixed seed, so the same shape
+ * and size always give the same document.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public final class Documents {
+
+    /**
+     * Wide object: size members of mixed types on one level.
+     */
+    public static final String WIDE = "wide";
+
+    /**
+     * Deep nesting: size / DEPTH members, each a chain of DEPTH objects.
+     */
+    public static final String DEEP = "deep";
+
+    /**
+     * Large numeric arrays: size doubles and size longs.
+     */
+    public static final String NUMBERS = "numbers";
+
+    /**
+     * Array of size JsonFile records.
+     */
+    public static final String RECORDS = "records";
+
+    /**
+     * Nesting level of the chains in deep documents.
+     */
+    public static final int DEPTH = 50;
+
+    private Documents() {
+    }
+
+    /**
+     * Builds a document of given shape and size.
+     *
+     * @param   shape   one of the shape constants
+     * @param   size    number of values, roughly
+     * @return          document named after the shape
+     */
+    public static JsonFile create(String shape, int size) {
+        Random random = new Random(shape.hashCode() * 31L + size);
+        JsonFile file = new JsonFile(shape);
+
+        switch (shape) {
+            case WIDE:
+                addWide(file, size, random);
+                break;
+            case DEEP:
+                addDeep(file, size, random);
+                break;
+            case NUMBERS:
+                addNumbers(file, size, random);
+                break;
+            case RECORDS:
+                addRecords(file, size, random);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+
+        return file;
+    }
+
+    /**
+     * Adds size members cycling through strings, doubles, ints and booleans.
+     */
+    static void addWide(JsonFile file, int size, Random random) {
+        for (int i = 0; i < size; i++) {
+            String key = "member" + i;
+
+            switch (i & 3) {
+                case 0:
+                    file.add(key, "value " + random.nextInt(100000));
+                    break;
+                case 1:
+                    file.add(key, random.nextDouble() * 1000);
+                    break;
+                case 2:
+                    file.add(key, random.nextInt(100000));
+                    break;
+                default:
+                    file.add(key, random.nextBoolean());
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Adds chains of nested objects with a number on every level.
+     */
+    static void addDeep(JsonFile file, int size, Random random) {
+        int chains = Math.max(1, size / DEPTH);
+
+        for (int i = 0; i < chains; i++) {
+            ObjectUnit inner = new ObjectUnit("level" + (DEPTH - 1), new ArrayList<JsonUnit>());
+            inner.add(new StringUnit("leaf", "value " + random.nextInt(100000)));
+
+            for (int level = DEPTH - 2; level > 0; level--) {
+                ObjectUnit outer = new ObjectUnit("level" + level, new ArrayList<JsonUnit>());
+                outer.add(new NumberUnit("n", random.nextInt(1000)));
+                outer.add(inner);
+                inner = outer;
+            }
+
+            List<JsonUnit> values = new ArrayList<>();
+            values.add(new NumberUnit("n", random.nextInt(1000)));
+            values.add(inner);
+            file.add("chain" + i, values);
+        }
+    }
+
+    /**
+     * Adds one array of doubles and one array of longs.
+     */
+    static void addNumbers(JsonFile file, int size, Random random) {
+        double[] doubles = new double[size];
+        long[] longs = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            doubles[i] = Math.round(random.nextGaussian() * 1000000) / 1000.0;
+            longs[i] = random.nextInt();
+        }
+
+        file.addArray("doubles", doubles);
+        file.addArray("longs", longs);
+    }
+
+    /**
+     * Adds one array of small records.
+     */
+    static void addRecords(JsonFile file, int size, Random random) {
+        JsonFile[] records = new JsonFile[size];
+
+        for (int i = 0; i < size; i++) {
+            JsonFile record = new JsonFile("record");
+            record.add("id", i);
+            record.add("name", "item " + random.nextInt(100000));
+            record.add("price", random.nextInt(100000) / 100.0);
+            record.add("available", random.nextBoolean());
+            record.addArray("tags", "tag" + random.nextInt(10), "tag" + random.nextInt(10));
+            records[i] = record;
+        }
+
+        file.addArray("records", records);
+    }
+}
@@ -0,0 +1,115 @@
+package fi.esupponen.jsonparser.benchmarks;
+
+import fi.esupponen.jsonparser.BinaryJson;
+import fi.esupponen.jsonparser.JsonFile;
+import fi.esupponen.jsonparser.JsonReader;
+import fi.esupponen.jsonparser.JsonUnit;
+import fi.esupponen.jsonparser.LazyJsonFile;
+import fi.esupponen.jsonparser.ParallelJsonReader;
+import fi.esupponen.shoppinglist.FileOpener;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading a document back.
+ *
+ * readFile goes through FileOpener like the shopping list does. readBytes
+ * reads the same document from memory, so the difference between the two
+ * is the cost of the file system. readLazy scans the same bytes with
+ * LazyJsonFile and decodes only the first member. readParallel parses
+ * large arrays of records on the common pool. readBinary decodes the same
+ * document from its binary form.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ReadBenchmark {
+
+    @Param({Documents.WIDE, Documents.DEEP, Documents.NUMBERS, Documents.RECORDS})
+    String shape;
+
+    @Param({"100", "10000"})
+    int size;
+
+    Path directory;
+
+    Path path;
+
+    byte[] bytes;
+
+    byte[] binary;
+
+    String firstKey;
+
+    ParallelJsonReader parallel;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("jsonparser-benchmarks");
+        JsonFile file = Documents.create(shape, size);
+        file.setName(directory.resolve(shape).toString());
+        file.parse();
+
+        path = Paths.get(file.getName() + ".json");
+        bytes = Files.readAllBytes(path);
+        binary = BinaryJson.encode(file);
+        firstKey = file.getUnits().get(0).getKey();
+        parallel = new ParallelJsonReader();
+        parallel.setThreshold(64 * 1024);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public JsonFile readFile() throws IOException {
+        return FileOpener.readFile(path.toString());
+    }
+
+    @Benchmark
+    public JsonFile readBytes() throws IOException {
+        try (JsonReader reader = new JsonReader(new ByteArrayInputStream(bytes))) {
+            return reader.readFile(shape);
+        }
+    }
+
+    @Benchmark
+    public JsonUnit readLazy() {
+        return new LazyJsonFile(shape, bytes).get(firstKey);
+    }
+
+    @Benchmark
+    public JsonFile readParallel() {
+        return parallel.readFile(shape, bytes);
+    }
+
+    @Benchmark
+    public JsonFile readBinary() {
+        return BinaryJson.decode(shape, binary);
+    }
+}
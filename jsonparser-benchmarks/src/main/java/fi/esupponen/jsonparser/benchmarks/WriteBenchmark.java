@@ -0,0 +1,124 @@
+package fi.esupponen.jsonparser.benchmarks;
+
+import fi.esupponen.jsonparser.BinaryJson;
+import fi.esupponen.jsonparser.JsonFile;
+import fi.esupponen.jsonparser.JsonStyle;
+import fi.esupponen.jsonparser.ParallelJsonWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing a document out in different ways.
+ *
+ * The sink benchmarks write to a stream that only counts the bytes, so they
+ * measure the library and not the disk. parse() writes a real file to a
+ * temporary directory. writeParallel renders large arrays of records on
+ * the common pool. writeBinary encodes the binary form instead of text.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WriteBenchmark {
+
+    @Param({Documents.WIDE, Documents.DEEP, Documents.NUMBERS, Documents.RECORDS})
+    String shape;
+
+    @Param({"100", "10000"})
+    int size;
+
+    JsonFile file;
+
+    Path directory;
+
+    ParallelJsonWriter parallel;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("jsonparser-benchmarks");
+        file = Documents.create(shape, size);
+        file.setName(directory.resolve(shape).toString());
+        parallel = new ParallelJsonWriter();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(new File(file.getName() + ".json").toPath());
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public String toStringInline() {
+        return file.toString();
+    }
+
+    @Benchmark
+    public long writeToPretty() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream();
+        file.writeTo(sink, JsonStyle.PRETTY);
+
+        return sink.getCount();
+    }
+
+    @Benchmark
+    public long writeToMinified() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream();
+        file.writeTo(sink, JsonStyle.MINIFIED);
+
+        return sink.getCount();
+    }
+
+    @Benchmark
+    public long writeParallel() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream();
+        parallel.write(file, sink, JsonStyle.PRETTY);
+
+        return sink.getCount();
+    }
+
+    @Benchmark
+    public long writeBinary() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream();
+        BinaryJson.encode(file, sink);
+
+        return sink.getCount();
+    }
+
+    @Benchmark
+    public long jsonPrint() {
+        CountingOutputStream sink = new CountingOutputStream();
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8));
+        file.jsonPrint("", writer);
+        writer.flush();
+
+        return sink.getCount();
+    }
+
+    @Benchmark
+    public void parse() {
+        file.parse();
+    }
+}
@@ -1,12 +1,13 @@
 package fi.esupponen.jsonparser;
 
-import java.util.LinkedList;
-import java.io.PrintWriter;
-import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.io.IOException;
 
 /**
  * @author      Essi Supponen [essi.supponen@cs.tamk.fi]
- * @version     2018-1217
+ * @version     2026-1018
  * @since       2018-1120
  */
 public class ArrayUnit<T> implements JsonUnit {
@@ -16,10 +17,28 @@ public class ArrayUnit<T> implements JsonUnit {
      */
     String key;
 
+    /**
+     * The key in quotes as UTF-8, copied as is to byte outputs. Encoded
+     * when the unit is first written to one. Volatile, because several
+     * threads may write the same unit.
+     */
+    volatile byte[] encodedKey;
+
+    /**
+     * Index of the file or object the unit was added to, kept up to date
+     * by setKey().
+     */
+    KeyIndex owner;
+
     /**
      * The values of the array.
      */
-    LinkedList<T> values;
+    List<T> values;
+
+    /**
+     * Length of the last toString() result, used to size the next builder.
+     */
+    int lastLength;
 
     /**
      * Constructs an unit using given key and value.
@@ -27,9 +46,10 @@ public class ArrayUnit<T> implements JsonUnit {
      * @param   key     key of the unit
      * @param   values  values of the unit
      */
-    public ArrayUnit(String key, LinkedList<T> values) {
+    public ArrayUnit(String key, List<T> values) {
         this.key = key;
         this.values = values;
+        this.lastLength = 16;
     }
 
     /**
@@ -39,76 +59,8 @@ public class ArrayUnit<T> implements JsonUnit {
      */
     public ArrayUnit(String key) {
         this.key = key;
-        this.values = new LinkedList<T>();
-    }
-
-    /**
-     * Writes the expression of this unit to given json-file.
-     * 
-     * Uses leadingSpaces to have proper indentation. Prints key inside
-     * quotation marks. If there is no values at all, just prints null.
-     * Otherwise prints open square brackets and starts printing the
-     * values. In the end closes the square brackets. If values are
-     * instances of JsonFile, uses its jsonPrint()-method.
-     *
-     * @param   leadingSpaces   indentation
-     * @param   writer          json-file   
-     */
-    public void jsonPrint(String leadingSpaces, PrintWriter writer) {
-        if (values == null) {
-            writer.print(leadingSpaces + "\"" + key + "\": null");
-        } else {
-            writer.print(leadingSpaces + "\"" + key + "\": [");
-
-            if (values.size() == 0) {
-                // Do nothing
-            } else if (values.get(0) instanceof String) {
-                for (int i = 0; i < values.size(); i++) {
-                    writer.print("\"" + values.get(i) + "\"");
-
-                    if (i != values.size()-1) {
-                        writer.print(", ");
-                    }
-                }
-            } else if (values.get(0) instanceof JsonFile) {
-                writer.println();
-
-                for (int i = 0; i < values.size(); i++) {
-                    JsonFile value = (JsonFile)(values.get(i));
-                    value.jsonPrint(leadingSpaces + "  ", writer);
-
-                    if (i != values.size()-1) {
-                        writer.println(", ");
-                    }
-                }
-            } else if (values.get(0) instanceof Double) {
-                DecimalFormat intFormat = new DecimalFormat("#.#");
-
-                for (int i = 0; i < values.size(); i++) {
-                    Double value = (Double) (values.get(i));
-
-                    if (value.doubleValue() - (int)value.doubleValue() != 0) {
-                        writer.print(value);
-                    } else {
-                        writer.print(intFormat.format(value.doubleValue()));
-                    }
-
-                    if (i != values.size()-1) {
-                        writer.print(", ");
-                    }
-                }
-            } else {
-                for (int i = 0; i < values.size(); i++) {
-                    writer.print(values.get(i));
-
-                    if (i != values.size()-1) {
-                        writer.print(", ");
-                    }
-                }
-            }
-
-            writer.print("]");
-        }
+        this.values = new ArrayList<T>();
+        this.lastLength = 16;
     }
 
     /**
@@ -130,85 +82,144 @@ public class ArrayUnit<T> implements JsonUnit {
     }
 
     /**
-     * Returns the values of the unit as a LinkedList.
+     * Returns the values of the unit.
      *
-     * @return  values in LinkedList
+     * @return  values
      */
-    public LinkedList<T> getValues() {
+    public List<T> getValues() {
         return values;
     }
 
     /**
      * Set a new key.
      *
+     * A file or an object the unit has been added to finds it by the new
+     * key, and the key must not already be used there.
+     *
      * @param key       new key
      */
     public void setKey(String key) {
+        KeyIndex.rename(owner, this, this.key, key);
         this.key = key;
+        this.encodedKey = null;
     }
 
     /**
      * Set a new value.
      ^
-     * @param values    new values as LinkedList
+     * @param values    new values
      */
-    public void setValues(LinkedList<T> values) {
+    public void setValues(List<T> values) {
         this.values = values;
     }
 
     /**
-     * Returns a string representation of the object.
+     * Appends the key and the values inside square brackets to given output.
      *
-     * @return  string representation of object
+     * Checks the type of every value, so arrays with values of different
+     * types are appended correctly too. If the first value is a JsonFile
+     * and the style is multiline, every value starts a new line. Otherwise
+     * the values stay on one line.
+     *
+     * @param   out     output to append to
+     * @param   style   layout to use
+     * @param   depth   nesting level of the unit
+     * @throws  IOException if appending fails
      */
-    @Override
-    public String toString() {
-        String str = "\"" + key + "\": ";
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        byte[] encoded = style.name(out, key, encodedKey);
+
+        if (encoded != encodedKey) {
+            encodedKey = encoded;
+        }
 
         if (values == null) {
-            str += null;
+            out.append("null");
+        } else if (values.isEmpty()) {
+            out.append("[]");
         } else {
-            str += "[";
-
-            if (values.size() == 0) {
-                // Do nothing.
-            } else if (values.get(0) instanceof String) {
-                for (int i = 0; i < values.size(); i++) {
-                    str += "\"" + values.get(i) + "\"";
-
-                    if (i != values.size()-1) {
-                        str += ", ";
-                    }
-                }
-            } else if (values.get(0) instanceof Double) {
-                DecimalFormat intFormat = new DecimalFormat("#.#");
-
-                for (int i = 0; i < values.size(); i++) {
-                    Double value = (Double) (values.get(i));
-
-                    if (value.doubleValue() - (int)value.doubleValue() != 0) {
-                        str += value;
-                    } else {
-                        str += intFormat.format(value.doubleValue());
-                    }
-
-                    if (i != values.size()-1) {
-                        str += ", ";
-                    }
-                }
-            } else {
-                for (int i = 0; i < values.size(); i++) {
-                    str += values.get(i).toString();
+            out.append('[');
 
-                    if (i != values.size()-1) {
-                        str += ", ";
-                    }
-                }
+            boolean onePerLine = isOnePerLine(style);
+            writeValues(out, style, depth, onePerLine, 0, values.size());
+
+            if (onePerLine) {
+                style.newline(out, depth);
+            }
+
+            out.append(']');
+        }
+    }
+
+    /**
+     * Does the array start a new line for every value in given style.
+     *
+     * @param   style   layout to use
+     * @return          is every value on its own line
+     */
+    boolean isOnePerLine(JsonStyle style) {
+        return style.multiline && values.get(0) instanceof JsonFile;
+    }
+
+    /**
+     * Appends the values at positions from to to, without the brackets.
+     *
+     * Every value except the first one of the whole array is preceded by a
+     * separator, so consecutive ranges can be appended separately and
+     * joined. Only reads the list, so several threads can append
+     * different ranges at once.
+     *
+     * @param   out         output to append to
+     * @param   style       layout to use
+     * @param   depth       nesting level of the unit
+     * @param   onePerLine  does every value start a new line
+     * @param   from        position of the first value
+     * @param   to          position after the last value
+     * @throws  IOException if appending fails
+     */
+    void writeValues(Appendable out, JsonStyle style, int depth, boolean onePerLine, int from, int to)
+            throws IOException {
+        Iterator<T> iterator = values.listIterator(from);
+
+        for (int i = from; i < to; i++) {
+            Object value = iterator.next();
+
+            if (i > 0) {
+                out.append(onePerLine ? style.separator : style.inlineSeparator);
+            }
+
+            if (onePerLine) {
+                style.newline(out, depth + 1);
             }
 
-            str += "]";
+            if (value == null) {
+                out.append("null");
+            } else if (value instanceof String) {
+                StringEscaper.write(out, (String) value);
+            } else if (value instanceof Double || value instanceof Float) {
+                NumberWriter.write(out, ((Number) value).doubleValue());
+            } else if (value instanceof Long || value instanceof Integer
+                    || value instanceof Short || value instanceof Byte) {
+                NumberWriter.write(out, ((Number) value).longValue());
+            } else if (value instanceof JsonFile) {
+                ((JsonFile) value).writeTo(out, style, depth + 1);
+            } else {
+                out.append(value.toString());
+            }
         }
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return  string representation of object
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(lastLength);
+        writeTo(builder);
+        lastLength = builder.length();
 
-        return str;
+        return builder.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,344 @@
+package fi.esupponen.jsonparser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Saves a JsonFile in the background after it has been changed.
+ *
+ * Call changed() after every change. The first change schedules a save
+ * after the minimum interval, and every change made before that save
+ * starts is written with it, so a burst of changes costs one write. A
+ * change made while a save is running schedules the next one the interval
+ * later, so the file is written at most once per interval however often
+ * it changes.
+ *
+ * A save writes the file to a temporary file next to the target, forces it
+ * to the disk and renames it over the target. After a crash the target
+ * holds either the previous save or the new one, never a part of a file.
+ *
+ * The file is frozen on the saving thread, so a file changed by other
+ * threads should be a ConcurrentJsonFile. A failed save is given to the
+ * error handler and tried again after the interval.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class AutoSaver implements Closeable {
+
+    /**
+     * File to save.
+     */
+    JsonFile file;
+
+    /**
+     * Where the file is saved.
+     */
+    Path path;
+
+    /**
+     * File written before renaming it to path.
+     */
+    Path temporary;
+
+    /**
+     * Layout of the saved file.
+     */
+    JsonStyle style;
+
+    /**
+     * Minimum time between saves in nanoseconds.
+     */
+    long interval;
+
+    /**
+     * Executor running the saves.
+     */
+    ScheduledExecutorService executor;
+
+    /**
+     * Was the executor created by this saver, so that close() shuts it down.
+     */
+    boolean ownExecutor;
+
+    /**
+     * Receives failed saves, or null.
+     */
+    volatile Consumer<? super Exception> errorHandler;
+
+    /**
+     * Held while saving, so saves never overlap.
+     */
+    ReentrantLock saving;
+
+    /**
+     * Has the file changed since the last save started.
+     */
+    boolean dirty;
+
+    /**
+     * Scheduled save that has not started yet, or null.
+     */
+    ScheduledFuture<?> pending;
+
+    /**
+     * Has close() been called.
+     */
+    boolean closed;
+
+    /**
+     * Number of completed saves.
+     */
+    volatile long saves;
+
+    /**
+     * Constructs a saver writing pretty printed on its own daemon thread.
+     *
+     * @param   file        file to save
+     * @param   path        where to save the file
+     * @param   minInterval minimum time between saves
+     * @param   unit        unit of minInterval
+     */
+    public AutoSaver(JsonFile file, Path path, long minInterval, TimeUnit unit) {
+        this(file, path, JsonStyle.PRETTY, minInterval, unit, Executors.newSingleThreadScheduledExecutor((task) -> {
+            Thread thread = new Thread(task, "autosaver");
+            thread.setDaemon(true);
+
+            return thread;
+        }));
+
+        this.ownExecutor = true;
+    }
+
+    /**
+     * Constructs a saver running the saves on given executor.
+     *
+     * The executor is not shut down by close().
+     *
+     * @param   file        file to save
+     * @param   path        where to save the file
+     * @param   style       layout of the saved file
+     * @param   minInterval minimum time between saves
+     * @param   unit        unit of minInterval
+     * @param   executor    executor to save on
+     */
+    public AutoSaver(JsonFile file, Path path, JsonStyle style, long minInterval, TimeUnit unit,
+            ScheduledExecutorService executor) {
+        if (minInterval < 0) {
+            throw new RuntimeException("Minimum interval can't be negative.");
+        }
+
+        this.file = file;
+        this.path = path;
+        this.temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        this.style = style;
+        this.interval = unit.toNanos(minInterval);
+        this.executor = executor;
+        this.saving = new ReentrantLock();
+    }
+
+    /**
+     * Sets the handler receiving the errors of background saves.
+     *
+     * Without a handler the errors are only retried.
+     *
+     * @param   handler     receives failed saves, or null
+     */
+    public void setErrorHandler(Consumer<? super Exception> handler) {
+        this.errorHandler = handler;
+    }
+
+    /**
+     * Returns where the file is saved.
+     *
+     * @return  path of the saved file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of completed saves.
+     *
+     * @return  number of saves
+     */
+    public long getSaveCount() {
+        return saves;
+    }
+
+    /**
+     * Tells that the file has changed, scheduling a save unless one is
+     * already waiting.
+     */
+    public synchronized void changed() {
+        if (closed) {
+            throw new RuntimeException("AutoSaver is closed.");
+        }
+
+        dirty = true;
+        schedule();
+    }
+
+    /**
+     * Schedules a save unless one is already waiting. The monitor must be
+     * held.
+     */
+    void schedule() {
+        if (pending == null && !closed) {
+            pending = executor.schedule(this::run, interval, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Runs a scheduled save.
+     */
+    void run() {
+        synchronized (this) {
+            pending = null;
+        }
+
+        try {
+            saveIfDirty();
+        } catch (IOException | RuntimeException e) {
+            Consumer<? super Exception> handler = errorHandler;
+
+            if (handler != null) {
+                handler.accept(e);
+            }
+        }
+    }
+
+    /**
+     * Saves the changes made so far, waiting for a running save first.
+     *
+     * Does nothing if the file has not changed since the last save.
+     *
+     * @throws  IOException if saving fails
+     */
+    public void flush() throws IOException {
+        saveIfDirty();
+    }
+
+    /**
+     * Saves the file if it has changed. If saving fails, the file stays
+     * changed and another save is scheduled.
+     *
+     * @throws  IOException if saving fails
+     */
+    void saveIfDirty() throws IOException {
+        saving.lock();
+
+        try {
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+
+                dirty = false;
+            }
+
+            boolean saved = false;
+
+            try {
+                save();
+                saved = true;
+            } finally {
+                if (!saved) {
+                    synchronized (this) {
+                        dirty = true;
+                        schedule();
+                    }
+                }
+            }
+        } finally {
+            saving.unlock();
+        }
+    }
+
+    /**
+     * Writes the file to the temporary file and renames it over the target.
+     *
+     * @throws  IOException if writing or renaming fails
+     */
+    void save() throws IOException {
+        FrozenJsonFile snapshot = file.freeze();
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            snapshot.writeTo(channel, style);
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        forceDirectory();
+        saves++;
+    }
+
+    /**
+     * Forces the rename to the disk by forcing the directory.
+     *
+     * Not every system can open a directory, and there the rename is left
+     * to the system.
+     */
+    void forceDirectory() {
+        Path directory = path.toAbsolutePath().getParent();
+
+        if (directory == null) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // The file itself is already on the disk.
+        }
+    }
+
+    /**
+     * Saves the unsaved changes and stops saving.
+     *
+     * A saver created with its own thread shuts the thread down.
+     *
+     * @throws  IOException if the last save fails
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+        }
+
+        try {
+            flush();
+        } finally {
+            if (ownExecutor) {
+                executor.shutdown();
+            }
+        }
+    }
+}
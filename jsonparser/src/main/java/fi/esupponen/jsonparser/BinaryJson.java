@@ -0,0 +1,679 @@
+package fi.esupponen.jsonparser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compact binary form of JsonFile trees.
+ *
+ * Meant for caches and messages between processes, where the same
+ * documents are written and read over and over again and nobody reads the
+ * bytes. Decoding gives the same units the text form would give, so the
+ * text of a decoded file is the text of the encoded one.
+ *
+ * The bytes start with 'J', 'B' and the version of the format, followed by
+ * the members of the file. Counts, lengths and keys are unsigned varints:
+ * seven bits per byte, lowest first, the high bit set on every byte but
+ * the last. Every value starts with a tag byte:
+ *
+ *  NULL, FALSE, TRUE       nothing else
+ *  STRING                  length and UTF-8 bytes
+ *  DOUBLE                  eight bytes of the double, big-endian
+ *  INTEGER                 double without a fraction, zigzag varint
+ *  LONG                    long value in ArrayUnit, zigzag varint
+ *  OBJECT                  count and members
+ *  ARRAY                   count and values
+ *  DOUBLE_ARRAY            count and eight bytes for every value
+ *  LONG_ARRAY              count and a zigzag varint for every value
+ *  BOOLEAN_ARRAY           count and the values packed eight to a byte
+ *
+ * A member is its key and its value. The first time a key is used, it is
+ * written as 0 followed by its length and UTF-8 bytes, and it gets the
+ * next number in the dictionary of the document. Later uses write only
+ * that number plus one, so the records of a large array spell their keys
+ * out once.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public final class BinaryJson {
+
+    /**
+     * First bytes of every document: 'J', 'B' and the version.
+     */
+    static final byte[] MAGIC = {'J', 'B', 1};
+
+    static final int NULL = 0;
+    static final int FALSE = 1;
+    static final int TRUE = 2;
+    static final int STRING = 3;
+    static final int DOUBLE = 4;
+    static final int INTEGER = 5;
+    static final int LONG = 6;
+    static final int OBJECT = 7;
+    static final int ARRAY = 8;
+    static final int DOUBLE_ARRAY = 9;
+    static final int LONG_ARRAY = 10;
+    static final int BOOLEAN_ARRAY = 11;
+
+    /**
+     * Largest double written as INTEGER. Larger ones are as short as raw.
+     */
+    static final long MAX_INTEGER = 1L << 48;
+
+    private BinaryJson() {
+    }
+
+    /**
+     * Encodes given file.
+     *
+     * @param   file    file to encode
+     * @return          encoded bytes
+     * @throws  RuntimeException if the file holds units or array values
+     *                           that have no binary form
+     */
+    public static byte[] encode(JsonFile file) {
+        Encoder encoder = new Encoder();
+        encoder.writeFile(file);
+
+        return Arrays.copyOf(encoder.buffer, encoder.pos);
+    }
+
+    /**
+     * Encodes given file to given stream.
+     *
+     * The stream is not flushed or closed.
+     *
+     * @param   file    file to encode
+     * @param   out     stream to write to
+     * @throws  IOException if writing fails
+     */
+    public static void encode(JsonFile file, OutputStream out) throws IOException {
+        Encoder encoder = new Encoder();
+        encoder.writeFile(file);
+        out.write(encoder.buffer, 0, encoder.pos);
+    }
+
+    /**
+     * Decodes a file from given bytes.
+     *
+     * @param   name    name for the decoded file
+     * @param   bytes   encoded bytes
+     * @return          decoded file
+     * @throws  RuntimeException if the bytes are not a binary document
+     */
+    public static JsonFile decode(String name, byte[] bytes) {
+        return decode(name, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Decodes a file from a part of given bytes.
+     *
+     * @param   name    name for the decoded file
+     * @param   bytes   bytes holding the document
+     * @param   offset  position of the document
+     * @param   length  length of the document
+     * @return          decoded file
+     * @throws  RuntimeException if the bytes are not a binary document
+     */
+    public static JsonFile decode(String name, byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || length > bytes.length - offset) {
+            throw new IndexOutOfBoundsException("Offset " + offset + ", length " + length
+                    + ", size " + bytes.length);
+        }
+
+        return new Decoder(bytes, offset, offset + length).readFile(name);
+    }
+
+    /**
+     * Decodes a file from the remaining bytes of given buffer.
+     *
+     * The position of the buffer is not changed.
+     *
+     * @param   name    name for the decoded file
+     * @param   buffer  buffer holding the document
+     * @return          decoded file
+     * @throws  RuntimeException if the bytes are not a binary document
+     */
+    public static JsonFile decode(String name, ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return decode(name, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+
+        return decode(name, bytes);
+    }
+
+    /**
+     * Decodes a file from everything left in given stream.
+     *
+     * The stream is not closed.
+     *
+     * @param   name    name for the decoded file
+     * @param   in      stream to read
+     * @return          decoded file
+     * @throws  IOException if reading fails
+     */
+    public static JsonFile decode(String name, InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+
+        while ((read = in.read(chunk)) != -1) {
+            bytes.write(chunk, 0, read);
+        }
+
+        return decode(name, bytes.toByteArray());
+    }
+
+    /**
+     * Writes units to a growing buffer.
+     */
+    static final class Encoder {
+
+        /**
+         * Encoded bytes.
+         */
+        byte[] buffer = new byte[256];
+
+        /**
+         * Number of bytes in buffer.
+         */
+        int pos;
+
+        /**
+         * Numbers of the keys written so far.
+         */
+        HashMap<String, Integer> keys = new HashMap<>();
+
+        /**
+         * Makes sure there is room for given number of bytes.
+         *
+         * @param   count   number of bytes
+         */
+        void ensure(int count) {
+            if (buffer.length - pos < count) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, pos + count));
+            }
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buffer[pos++] = (byte) b;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+
+            while ((value & ~0x7FL) != 0) {
+                buffer[pos++] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+
+            buffer[pos++] = (byte) value;
+        }
+
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeDouble(double value) {
+            ensure(8);
+            long bits = Double.doubleToRawLongBits(value);
+
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[pos++] = (byte) (bits >>> shift);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        /**
+         * Writes the number of given key, or the key itself the first time.
+         *
+         * @param   key     key to write
+         */
+        void writeKey(String key) {
+            Integer number = keys.get(key);
+
+            if (number != null) {
+                writeVarint(number + 1L);
+            } else {
+                keys.put(key, keys.size());
+                writeVarint(0);
+                writeString(key);
+            }
+        }
+
+        void writeFile(JsonFile file) {
+            ensure(MAGIC.length);
+            System.arraycopy(MAGIC, 0, buffer, pos, MAGIC.length);
+            pos += MAGIC.length;
+            writeMembers(file.getUnits());
+        }
+
+        void writeMembers(List<JsonUnit> units) {
+            writeVarint(units.size());
+
+            for (JsonUnit unit : units) {
+                writeKey(unit.getKey());
+                writeUnit(unit);
+            }
+        }
+
+        /**
+         * Writes the value of given unit.
+         *
+         * @param   unit    unit to write
+         */
+        void writeUnit(JsonUnit unit) {
+            if (unit instanceof StringUnit) {
+                String value = ((StringUnit) unit).getValue();
+
+                if (value == null) {
+                    writeByte(NULL);
+                } else {
+                    writeByte(STRING);
+                    writeString(value);
+                }
+            } else if (unit instanceof NumberUnit) {
+                writeNumber(((NumberUnit) unit).getValue());
+            } else if (unit instanceof BooleanUnit) {
+                writeByte(((BooleanUnit) unit).getValue() ? TRUE : FALSE);
+            } else if (unit instanceof ObjectUnit) {
+                List<JsonUnit> values = ((ObjectUnit) unit).getValues();
+
+                if (values == null) {
+                    writeByte(NULL);
+                } else {
+                    writeByte(OBJECT);
+                    writeMembers(values);
+                }
+            } else if (unit instanceof ArrayUnit) {
+                List<?> values = ((ArrayUnit<?>) unit).getValues();
+
+                if (values == null) {
+                    writeByte(NULL);
+                } else {
+                    writeByte(ARRAY);
+                    writeVarint(values.size());
+
+                    for (Object value : values) {
+                        writeValue(value);
+                    }
+                }
+            } else if (unit instanceof DoubleArrayUnit) {
+                DoubleArrayUnit array = (DoubleArrayUnit) unit;
+                writeByte(DOUBLE_ARRAY);
+                writeVarint(array.size);
+                ensure(array.size * 8);
+                ByteBuffer.wrap(buffer, pos, array.size * 8).asDoubleBuffer().put(array.values, 0, array.size);
+                pos += array.size * 8;
+            } else if (unit instanceof LongArrayUnit) {
+                LongArrayUnit array = (LongArrayUnit) unit;
+                writeByte(LONG_ARRAY);
+                writeVarint(array.size);
+
+                for (int i = 0; i < array.size; i++) {
+                    writeZigzag(array.values[i]);
+                }
+            } else if (unit instanceof BooleanArrayUnit) {
+                BooleanArrayUnit array = (BooleanArrayUnit) unit;
+                int length = (array.size + 7) >>> 3;
+                writeByte(BOOLEAN_ARRAY);
+                writeVarint(array.size);
+                ensure(length);
+
+                // Bit i of the array is bit i % 8 of byte i / 8.
+                for (int i = 0; i < length; i++) {
+                    buffer[pos++] = (byte) (array.words[i >>> 3] >>> ((i & 7) << 3));
+                }
+
+                int extra = array.size & 7;
+
+                if (extra != 0) {
+                    buffer[pos - 1] &= (byte) ((1 << extra) - 1);
+                }
+            } else {
+                throw new RuntimeException("Can't encode " + unit.getClass().getName() + ".");
+            }
+        }
+
+        /**
+         * Writes a double, without the fraction when it has none.
+         *
+         * @param   value   number to write
+         */
+        void writeNumber(double value) {
+            long integer = (long) value;
+
+            if (integer == value && integer <= MAX_INTEGER && integer >= -MAX_INTEGER
+                    && Double.doubleToRawLongBits(value) != Double.doubleToRawLongBits(-0.0)) {
+                writeByte(INTEGER);
+                writeZigzag(integer);
+            } else {
+                writeByte(DOUBLE);
+                writeDouble(value);
+            }
+        }
+
+        /**
+         * Writes a value of an ArrayUnit.
+         *
+         * @param   value   value to write
+         */
+        void writeValue(Object value) {
+            if (value == null) {
+                writeByte(NULL);
+            } else if (value instanceof String) {
+                writeByte(STRING);
+                writeString((String) value);
+            } else if (value instanceof Double || value instanceof Float) {
+                writeNumber(((Number) value).doubleValue());
+            } else if (value instanceof Long || value instanceof Integer
+                    || value instanceof Short || value instanceof Byte) {
+                writeByte(LONG);
+                writeZigzag(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof JsonFile) {
+                writeByte(OBJECT);
+                writeMembers(((JsonFile) value).getUnits());
+            } else {
+                throw new RuntimeException("Can't encode " + value.getClass().getName() + " in an array.");
+            }
+        }
+    }
+
+    /**
+     * Reads units from a part of a byte array.
+     */
+    static final class Decoder {
+
+        /**
+         * Encoded bytes.
+         */
+        byte[] bytes;
+
+        /**
+         * Position of the next byte.
+         */
+        int pos;
+
+        /**
+         * Position after the last byte.
+         */
+        int end;
+
+        /**
+         * Keys read so far by their numbers.
+         */
+        ArrayList<String> keys = new ArrayList<>();
+
+        Decoder(byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.pos = start;
+            this.end = end;
+        }
+
+        RuntimeException error(String message) {
+            return new RuntimeException(message + " at offset " + pos + ".");
+        }
+
+        int readByte() {
+            if (pos >= end) {
+                throw error("Unexpected end of input");
+            }
+
+            return bytes[pos++] & 0xFF;
+        }
+
+        long readVarint() {
+            long value = 0;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+
+                if (b < 0x80) {
+                    return value;
+                }
+            }
+
+            throw error("Too long varint");
+        }
+
+        long readZigzag() {
+            long value = readVarint();
+
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * Reads a count of items and checks that the input is long enough
+         * for them.
+         *
+         * @param   itemsPerByte    how many items fit in one byte at most
+         * @param   bytesPerItem    how many bytes one item takes at least
+         * @return                  count
+         */
+        int readCount(int itemsPerByte, int bytesPerItem) {
+            long count = readVarint();
+
+            if (count < 0 || count > Integer.MAX_VALUE
+                    || (count + itemsPerByte - 1) / itemsPerByte > (end - pos) / bytesPerItem) {
+                throw error("Count " + count + " is larger than the input");
+            }
+
+            return (int) count;
+        }
+
+        double readDouble() {
+            if (end - pos < 8) {
+                throw error("Unexpected end of input");
+            }
+
+            long bits = 0;
+
+            for (int i = 0; i < 8; i++) {
+                bits = (bits << 8) | (bytes[pos++] & 0xFF);
+            }
+
+            return Double.longBitsToDouble(bits);
+        }
+
+        String readString() {
+            int length = readCount(1, 1);
+            String value = new String(bytes, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+
+            return value;
+        }
+
+        String readKey() {
+            long number = readVarint();
+
+            if (number == 0) {
+                String key = readString();
+                keys.add(key);
+
+                return key;
+            }
+
+            if (number < 0 || number > keys.size()) {
+                throw error("Unknown key " + number);
+            }
+
+            return keys.get((int) number - 1);
+        }
+
+        JsonFile readFile(String name) {
+            for (byte b : MAGIC) {
+                if (readByte() != b) {
+                    throw error("Not a binary JSON document");
+                }
+            }
+
+            JsonFile file = new JsonFile(name);
+            readMembers(file, null);
+
+            if (pos != end) {
+                throw error("Extra bytes after the document");
+            }
+
+            return file;
+        }
+
+        /**
+         * Reads members to given file or object.
+         *
+         * @param   file    file to add to, or null
+         * @param   object  object to add to, or null
+         */
+        void readMembers(JsonFile file, ObjectUnit object) {
+            int count = readCount(1, 2);
+
+            for (int i = 0; i < count; i++) {
+                JsonUnit unit = readUnit(readKey());
+
+                if (file != null) {
+                    file.add(unit);
+                } else {
+                    object.add(unit);
+                }
+            }
+        }
+
+        /**
+         * Reads a value and returns it as an unit with given key, the way
+         * JsonReader would have read its text.
+         *
+         * @param   key     key for the unit
+         * @return          read unit
+         */
+        JsonUnit readUnit(String key) {
+            int tag = readByte();
+
+            switch (tag) {
+                case NULL:
+                    return new StringUnit(key);
+                case FALSE:
+                    return new BooleanUnit(key, false);
+                case TRUE:
+                    return new BooleanUnit(key, true);
+                case STRING:
+                    return new StringUnit(key, readString());
+                case DOUBLE:
+                    return new NumberUnit(key, readDouble());
+                case INTEGER:
+                    return new NumberUnit(key, readZigzag());
+                case OBJECT:
+                    ObjectUnit object = new ObjectUnit(key, new ArrayList<JsonUnit>());
+                    readMembers(null, object);
+
+                    return object;
+                case ARRAY:
+                    int count = readCount(1, 1);
+                    ArrayList<Object> values = new ArrayList<>(count);
+
+                    for (int i = 0; i < count; i++) {
+                        values.add(readValue(key));
+                    }
+
+                    return new ArrayUnit<Object>(key, values);
+                case DOUBLE_ARRAY:
+                    DoubleArrayUnit doubles = new DoubleArrayUnit(key);
+                    int size = readCount(1, 8);
+                    doubles.ensureCapacity(size);
+                    ByteBuffer.wrap(bytes, pos, size * 8).asDoubleBuffer().get(doubles.values, 0, size);
+                    doubles.size = size;
+                    pos += size * 8;
+
+                    return doubles;
+                case LONG_ARRAY:
+                    LongArrayUnit longs = new LongArrayUnit(key);
+                    int length = readCount(1, 1);
+                    longs.ensureCapacity(length);
+
+                    for (int i = 0; i < length; i++) {
+                        longs.values[i] = readZigzag();
+                    }
+
+                    longs.size = length;
+
+                    return longs;
+                case BOOLEAN_ARRAY:
+                    BooleanArrayUnit booleans = new BooleanArrayUnit(key);
+                    int bits = readCount(8, 1);
+                    booleans.ensureCapacity(bits);
+
+                    for (int i = 0; i < (bits + 7) >>> 3; i++) {
+                        booleans.words[i >>> 3] |= (long) (bytes[pos++] & 0xFF) << ((i & 7) << 3);
+                    }
+
+                    if ((bits & 63) != 0) {
+                        booleans.words[(bits - 1) >>> 6] &= -1L >>> (64 - (bits & 63));
+                    }
+
+                    booleans.size = bits;
+
+                    return booleans;
+                default:
+                    pos--;
+                    throw error("Unknown type " + tag);
+            }
+        }
+
+        /**
+         * Reads a value of an ArrayUnit. Objects become JsonFiles named
+         * after the key of the array.
+         *
+         * @param   key     key of the array
+         * @return          read value
+         */
+        Object readValue(String key) {
+            int tag = readByte();
+
+            switch (tag) {
+                case NULL:
+                    return null;
+                case FALSE:
+                    return Boolean.FALSE;
+                case TRUE:
+                    return Boolean.TRUE;
+                case STRING:
+                    return readString();
+                case DOUBLE:
+                    return readDouble();
+                case INTEGER:
+                    return (double) readZigzag();
+                case LONG:
+                    return readZigzag();
+                case OBJECT:
+                    JsonFile file = new JsonFile(key);
+                    readMembers(file, null);
+
+                    return file;
+                default:
+                    pos--;
+                    throw error("Unknown array value type " + tag);
+            }
+        }
+    }
+}
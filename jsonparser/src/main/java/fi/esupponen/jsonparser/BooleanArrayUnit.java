@@ -0,0 +1,236 @@
+package fi.esupponen.jsonparser;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Array of booleans stored as bits instead of a list of Booleans.
+ *
+ * Value at position i is bit i % 64 of word i / 64.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class BooleanArrayUnit implements JsonUnit {
+
+    /**
+     * The key of the unit.
+     */
+    String key;
+
+    /**
+     * The key in quotes as UTF-8, copied as is to byte outputs. Encoded
+     * when the unit is first written to one. Volatile, because several
+     * threads may write the same unit.
+     */
+    volatile byte[] encodedKey;
+
+    /**
+     * Index of the file or object the unit was added to, kept up to date
+     * by setKey().
+     */
+    KeyIndex owner;
+
+    /**
+     * The values of the array as bits. Only the first size bits are used.
+     */
+    long[] words;
+
+    /**
+     * Number of values in the array.
+     */
+    int size;
+
+    /**
+     * Constructs an unit with empty array.
+     *
+     * @param   key     key of the unit
+     */
+    public BooleanArrayUnit(String key) {
+        this.key = key;
+        this.words = new long[1];
+        this.size = 0;
+    }
+
+    /**
+     * Constructs an unit using given key and values.
+     *
+     * @param   key     key of the unit
+     * @param   values  values of the unit
+     */
+    public BooleanArrayUnit(String key, boolean... values) {
+        this(key);
+        addAll(values);
+    }
+
+    /**
+     * Makes sure there is room for given number of values.
+     *
+     * @param   capacity    needed number of values
+     */
+    public void ensureCapacity(int capacity) {
+        int needed = (capacity + 63) >>> 6;
+
+        if (needed > words.length) {
+            words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+        }
+    }
+
+    /**
+     * Adds given value to the end of the array.
+     *
+     * @param   value   new value
+     */
+    public void add(boolean value) {
+        ensureCapacity(size + 1);
+
+        if (value) {
+            words[size >>> 6] |= 1L << size;
+        } else {
+            words[size >>> 6] &= ~(1L << size);
+        }
+
+        size++;
+    }
+
+    /**
+     * Adds given values to the end of the array.
+     *
+     * @param   values  new values
+     */
+    public void addAll(boolean... values) {
+        ensureCapacity(size + values.length);
+
+        for (boolean value : values) {
+            add(value);
+        }
+    }
+
+    /**
+     * Returns the value at given position.
+     *
+     * @param   position    position of the value
+     * @return              value
+     */
+    public boolean get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + ", size " + size);
+        }
+
+        return (words[position >>> 6] & (1L << position)) != 0;
+    }
+
+    /**
+     * Sets a new value at given position.
+     *
+     * @param   position    position of the value
+     * @param   value       new value
+     */
+    public void set(int position, boolean value) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + ", size " + size);
+        }
+
+        if (value) {
+            words[position >>> 6] |= 1L << position;
+        } else {
+            words[position >>> 6] &= ~(1L << position);
+        }
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return  size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the values but keeps the storage.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the values as a new array.
+     *
+     * @return  copy of the values
+     */
+    public boolean[] toArray() {
+        boolean[] array = new boolean[size];
+
+        for (int i = 0; i < size; i++) {
+            array[i] = (words[i >>> 6] & (1L << i)) != 0;
+        }
+
+        return array;
+    }
+
+    /**
+     * Returns the key of the unit.
+     *
+     * @return  key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Sets a new key.
+     *
+     * A file or an object the unit has been added to finds it by the new
+     * key, and the key must not already be used there.
+     *
+     * @param key       new key
+     */
+    public void setKey(String key) {
+        KeyIndex.rename(owner, this, this.key, key);
+        this.key = key;
+        this.encodedKey = null;
+    }
+
+    /**
+     * Appends the key and the values inside square brackets to given output.
+     *
+     * The values always stay on one line.
+     *
+     * @param   out     output to append to
+     * @param   style   layout to use
+     * @param   depth   nesting level of the unit
+     * @throws  IOException if appending fails
+     */
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        byte[] encoded = style.name(out, key, encodedKey);
+
+        if (encoded != encodedKey) {
+            encodedKey = encoded;
+        }
+        out.append('[');
+
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(style.inlineSeparator);
+            }
+
+            out.append((words[i >>> 6] & (1L << i)) != 0 ? "true" : "false");
+        }
+
+        out.append(']');
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return  string representation of object
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(16 + size * 7);
+        writeTo(builder);
+
+        return builder.toString();
+    }
+}
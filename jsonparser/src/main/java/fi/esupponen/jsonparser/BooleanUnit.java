@@ -1,10 +1,10 @@
 package fi.esupponen.jsonparser;
 
-import java.io.PrintWriter;
+import java.io.IOException;
 
 /**
  * @author      Essi Supponen [essi.supponen@cs.tamk.fi]
- * @version     2018-1217
+ * @version     2026-1018
  * @since       2018-1120
  */
 public class BooleanUnit implements JsonUnit {
@@ -14,6 +14,19 @@ public class BooleanUnit implements JsonUnit {
      */
     String key;
 
+    /**
+     * The key in quotes as UTF-8, copied as is to byte outputs. Encoded
+     * when the unit is first written to one. Volatile, because several
+     * threads may write the same unit.
+     */
+    volatile byte[] encodedKey;
+
+    /**
+     * Index of the file or object the unit was added to, kept up to date
+     * by setKey().
+     */
+    KeyIndex owner;
+
     /**
      * The value of the unit.
      */
@@ -44,20 +57,7 @@ public class BooleanUnit implements JsonUnit {
      * Prints the key and the value to the console.
      */
     public void jsonPrint() {
-        System.out.print("\"" + key + "\": " + value);
-    }
-
-    /**
-     * Writes the expression of this unit to given json-file.
-     * 
-     * Uses leadingSpaces to have proper indentation. Prints key inside
-     * quotation marks and then value.
-     *
-     * @param   leadingSpaces   indentation
-     * @param   writer          json-file   
-     */
-    public void jsonPrint(String leadingSpaces, PrintWriter writer) {
-        writer.print(leadingSpaces + "\"" + key + "\": " + value);
+        System.out.print(toString());
     }
 
     /**
@@ -81,10 +81,15 @@ public class BooleanUnit implements JsonUnit {
     /**
      * Sets a new key.
      *
+     * A file or an object the unit has been added to finds it by the new
+     * key, and the key must not already be used there.
+     *
      * @param key       new key
      */
     public void setKey(String key) {
+        KeyIndex.rename(owner, this, this.key, key);
         this.key = key;
+        this.encodedKey = null;
     }
 
     /**
@@ -96,6 +101,28 @@ public class BooleanUnit implements JsonUnit {
         this.value = value;
     }
 
+    /**
+     * Appends the key and the value to given output.
+     *
+     * @param   out     output to append to
+     * @param   style   layout to use
+     * @param   depth   nesting level of the unit
+     * @throws  IOException if appending fails
+     */
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        byte[] encoded = style.name(out, key, encodedKey);
+
+        if (encoded != encodedKey) {
+            encodedKey = encoded;
+        }
+
+        if (value == null) {
+            out.append("null");
+        } else {
+            out.append(value ? "true" : "false");
+        }
+    }
+
     /**
      * Returns a string representation of the object.
      *
@@ -103,6 +130,9 @@ public class BooleanUnit implements JsonUnit {
      */
     @Override
     public String toString() {
-        return "\"" + key + "\": " + value;
+        StringBuilder builder = new StringBuilder();
+        writeTo(builder);
+
+        return builder.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,283 @@
+package fi.esupponen.jsonparser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * JsonFile that many threads can read and change at once.
+ *
+ * Units are kept in a ConcurrentHashMap by their keys, so get() and
+ * alreadyUsed() never lock. Every unit also gets a sequence number when it
+ * is added, and a skip list keeps the units in that order. Changes lock
+ * only the bin of their key in the map, so changes to different keys do
+ * not wait for each other.
+ *
+ * getUnits(), writing and toString() work on a snapshot: an immutable list
+ * of the units as they were at one moment. Changes share a lock that a
+ * snapshot takes alone while it is built, so a snapshot never shows half
+ * of a change. The snapshot is then kept until the next change, so
+ * writing an unchanged file again locks nothing.
+ *
+ * Units themselves are not made thread-safe. Instead of changing a unit
+ * another thread may be reading, replace it with put().
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class ConcurrentJsonFile extends JsonFile {
+
+    /**
+     * Units by their keys, with their sequence numbers.
+     */
+    ConcurrentHashMap<String, Member> members;
+
+    /**
+     * Units by their sequence numbers.
+     */
+    ConcurrentSkipListMap<Long, JsonUnit> order;
+
+    /**
+     * Next sequence number.
+     */
+    AtomicLong sequence;
+
+    /**
+     * Shared by changes, taken alone when building a snapshot.
+     */
+    StampedLock lock;
+
+    /**
+     * Units at the time of the last change, or null if not built yet.
+     */
+    volatile List<JsonUnit> snapshot;
+
+    /**
+     * Constructs an empty file with given name.
+     *
+     * @param   name    name for the file that will be parsed
+     */
+    public ConcurrentJsonFile(String name) {
+        super();
+        this.name = name;
+        this.members = new ConcurrentHashMap<>();
+        this.order = new ConcurrentSkipListMap<>();
+        this.sequence = new AtomicLong();
+        this.lock = new StampedLock();
+    }
+
+    /**
+     * Constructs a file holding the units of given file.
+     *
+     * @param   file    file to copy
+     */
+    public ConcurrentJsonFile(JsonFile file) {
+        this(file.getName());
+
+        for (JsonUnit unit : file.getUnits()) {
+            addUnit(unit);
+        }
+    }
+
+    @Override
+    public boolean alreadyUsed(String key) {
+        return members.containsKey(key);
+    }
+
+    @Override
+    public JsonUnit get(String key) {
+        Member member = members.get(key);
+
+        return member == null ? null : member.unit;
+    }
+
+    /**
+     * Returns the number of units.
+     *
+     * @return  number of units
+     */
+    public int size() {
+        return members.size();
+    }
+
+    @Override
+    void addUnit(JsonUnit unit) {
+        long stamp = lock.readLock();
+
+        try {
+            members.compute(unit.getKey(), (key, old) -> {
+                if (old != null) {
+                    throw new RuntimeException("Can't add new unit with already existing key.");
+                }
+
+                long number = sequence.getAndIncrement();
+                order.put(number, unit);
+
+                return new Member(number, unit);
+            });
+
+            snapshot = null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds given unit, or replaces the unit with the same key.
+     *
+     * A replaced unit keeps its position.
+     *
+     * @param   unit    unit to put
+     * @return          replaced unit, or null if there was none
+     */
+    public JsonUnit put(JsonUnit unit) {
+        if (unit instanceof JsonFile) {
+            throw new RuntimeException("JsonFiles can be added to JsonFile's units only inside ArrayUnit.");
+        }
+
+        JsonUnit[] replaced = new JsonUnit[1];
+        long stamp = lock.readLock();
+
+        try {
+            members.compute(unit.getKey(), (key, old) -> {
+                long number = old == null ? sequence.getAndIncrement() : old.number;
+                replaced[0] = old == null ? null : old.unit;
+                order.put(number, unit);
+
+                return new Member(number, unit);
+            });
+
+            snapshot = null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        return replaced[0];
+    }
+
+    @Override
+    public JsonUnit remove(String key) {
+        JsonUnit[] removed = new JsonUnit[1];
+        long stamp = lock.readLock();
+
+        try {
+            members.computeIfPresent(key, (k, old) -> {
+                order.remove(old.number);
+                removed[0] = old.unit;
+
+                return null;
+            });
+
+            if (removed[0] != null) {
+                snapshot = null;
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        return removed[0];
+    }
+
+    @Override
+    public JsonUnit remove(int position) {
+        long stamp = lock.writeLock();
+
+        try {
+            JsonUnit unit = build().get(position);
+            order.remove(members.remove(unit.getKey()).number);
+            snapshot = null;
+
+            return unit;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+
+        try {
+            members.clear();
+            order.clear();
+            snapshot = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the units.
+     *
+     * Unlike with JsonFile, the list does not follow later changes.
+     *
+     * @return  units
+     */
+    @Override
+    public List<JsonUnit> getUnits() {
+        List<JsonUnit> current = snapshot;
+
+        if (current != null) {
+            return current;
+        }
+
+        long stamp = lock.writeLock();
+
+        try {
+            return build();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Builds the snapshot unless it is up to date. The lock must be held
+     * alone.
+     *
+     * @return  snapshot
+     */
+    List<JsonUnit> build() {
+        List<JsonUnit> current = snapshot;
+
+        if (current == null) {
+            current = Collections.unmodifiableList(new ArrayList<>(order.values()));
+            snapshot = current;
+        }
+
+        return current;
+    }
+
+    @Override
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        writeMembers(out, getUnits(), style, depth);
+    }
+
+    /**
+     * Unit with its sequence number.
+     */
+    static class Member {
+
+        /**
+         * Sequence number of the unit.
+         */
+        final long number;
+
+        /**
+         * The unit.
+         */
+        final JsonUnit unit;
+
+        /**
+         * Constructs a member.
+         */
+        Member(long number, JsonUnit unit) {
+            this.number = number;
+            this.unit = unit;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package fi.esupponen.jsonparser;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Array of numbers stored in a double[] instead of a list of Doubles.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class DoubleArrayUnit implements JsonUnit {
+
+    /**
+     * The key of the unit.
+     */
+    String key;
+
+    /**
+     * The key in quotes as UTF-8, copied as is to byte outputs. Encoded
+     * when the unit is first written to one. Volatile, because several
+     * threads may write the same unit.
+     */
+    volatile byte[] encodedKey;
+
+    /**
+     * Index of the file or object the unit was added to, kept up to date
+     * by setKey().
+     */
+    KeyIndex owner;
+
+    /**
+     * The values of the array. Only the first size values are used.
+     */
+    double[] values;
+
+    /**
+     * Number of values in the array.
+     */
+    int size;
+
+    /**
+     * Constructs an unit with empty array.
+     *
+     * @param   key     key of the unit
+     */
+    public DoubleArrayUnit(String key) {
+        this.key = key;
+        this.values = new double[8];
+        this.size = 0;
+    }
+
+    /**
+     * Constructs an unit using given key and a copy of given values.
+     *
+     * @param   key     key of the unit
+     * @param   values  values of the unit
+     */
+    public DoubleArrayUnit(String key, double... values) {
+        this.key = key;
+        this.values = Arrays.copyOf(values, Math.max(values.length, 8));
+        this.size = values.length;
+    }
+
+    /**
+     * Makes sure there is room for given number of values.
+     *
+     * @param   capacity    needed number of values
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+        }
+    }
+
+    /**
+     * Adds given value to the end of the array.
+     *
+     * @param   value   new value
+     */
+    public void add(double value) {
+        if (size == values.length) {
+            ensureCapacity(size + 1);
+        }
+
+        values[size++] = value;
+    }
+
+    /**
+     * Adds given values to the end of the array.
+     *
+     * @param   newValues   new values
+     */
+    public void addAll(double... newValues) {
+        ensureCapacity(size + newValues.length);
+        System.arraycopy(newValues, 0, values, size, newValues.length);
+        size += newValues.length;
+    }
+
+    /**
+     * Returns the value at given position.
+     *
+     * @param   position    position of the value
+     * @return              value
+     */
+    public double get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + ", size " + size);
+        }
+
+        return values[position];
+    }
+
+    /**
+     * Sets a new value at given position.
+     *
+     * @param   position    position of the value
+     * @param   value       new value
+     */
+    public void set(int position, double value) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + ", size " + size);
+        }
+
+        values[position] = value;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return  size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the values but keeps the storage.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the values as a new array.
+     *
+     * @return  copy of the values
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Returns the key of the unit.
+     *
+     * @return  key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Sets a new key.
+     *
+     * A file or an object the unit has been added to finds it by the new
+     * key, and the key must not already be used there.
+     *
+     * @param key       new key
+     */
+    public void setKey(String key) {
+        KeyIndex.rename(owner, this, this.key, key);
+        this.key = key;
+        this.encodedKey = null;
+    }
+
+    /**
+     * Appends the key and the values inside square brackets to given output.
+     *
+     * The values always stay on one line.
+     *
+     * @param   out     output to append to
+     * @param   style   layout to use
+     * @param   depth   nesting level of the unit
+     * @throws  IOException if appending fails
+     */
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        byte[] encoded = style.name(out, key, encodedKey);
+
+        if (encoded != encodedKey) {
+            encodedKey = encoded;
+        }
+        out.append('[');
+
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(style.inlineSeparator);
+            }
+
+            NumberWriter.write(out, values[i]);
+        }
+
+        out.append(']');
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return  string representation of object
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(16 + size * 8);
+        writeTo(builder);
+
+        return builder.toString();
+    }
+}
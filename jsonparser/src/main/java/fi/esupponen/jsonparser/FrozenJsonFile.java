@@ -0,0 +1,697 @@
+package fi.esupponen.jsonparser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Immutable JsonFile created with JsonFile.freeze().
+ *
+ * Freezing copies the units once into frozen units whose setters throw
+ * an exception. with() and without() then return new files that share all
+ * the unchanged units with this one, so handing a changed document to
+ * another thread copies only the top-level array of units. Everything is
+ * reached through final fields, so a frozen file can be read from any
+ * thread without synchronization.
+ *
+ * Frozen objects and arrays keep their serialized bytes after they are
+ * first written to a byte output, like JsonFile.writeTo(OutputStream)
+ * uses. Writing the same units again, in this file or in any file created
+ * from it with with(), copies the bytes instead of encoding the units.
+ * Only the outermost unit written keeps the bytes, so a document is
+ * cached at most once however deep it is.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public final class FrozenJsonFile extends JsonFile {
+
+    /**
+     * Name of the file.
+     */
+    final String frozenName;
+
+    /**
+     * Frozen units of the file.
+     */
+    final JsonUnit[] members;
+
+    /**
+     * Read-only list of members given out by getUnits().
+     */
+    final List<JsonUnit> membersView;
+
+    /**
+     * Positions of the members by their keys. Never changed, so files
+     * whose keys are the same share it.
+     */
+    final HashMap<String, Integer> positions;
+
+    /**
+     * Constructs a file freezing given units.
+     *
+     * @param   name    name of the file
+     * @param   units   units to freeze
+     */
+    FrozenJsonFile(String name, List<JsonUnit> units) {
+        this(name, freezeAll(units), index(units));
+    }
+
+    /**
+     * Constructs a file of already frozen members.
+     *
+     * @param   name        name of the file
+     * @param   members     frozen units
+     * @param   positions   positions of the members by their keys
+     */
+    FrozenJsonFile(String name, JsonUnit[] members, HashMap<String, Integer> positions) {
+        super();
+        this.name = name;
+        this.frozenName = name;
+        this.members = members;
+        this.membersView = Collections.unmodifiableList(Arrays.asList(members));
+        this.positions = positions;
+    }
+
+    /**
+     * Freezes every unit of given list.
+     *
+     * @param   units   units to freeze
+     * @return          frozen units
+     */
+    static JsonUnit[] freezeAll(List<JsonUnit> units) {
+        JsonUnit[] frozen = new JsonUnit[units.size()];
+
+        for (int i = 0; i < frozen.length; i++) {
+            frozen[i] = freeze(units.get(i));
+        }
+
+        return frozen;
+    }
+
+    /**
+     * Maps the keys of given units to their positions.
+     *
+     * @param   units   units to map
+     * @return          positions by keys
+     */
+    static HashMap<String, Integer> index(List<JsonUnit> units) {
+        HashMap<String, Integer> positions = new HashMap<>(units.size() * 4 / 3 + 1);
+
+        for (int i = 0; i < units.size(); i++) {
+            positions.put(units.get(i).getKey(), i);
+        }
+
+        return positions;
+    }
+
+    /**
+     * Returns a frozen copy of given unit, or the unit itself if it is
+     * already frozen.
+     *
+     * @param   unit    unit to freeze
+     * @return          frozen unit
+     */
+    static JsonUnit freeze(JsonUnit unit) {
+        if (unit instanceof Frozen) {
+            return unit;
+        } else if (unit instanceof JsonFile) {
+            return ((JsonFile) unit).freeze();
+        } else if (unit instanceof StringUnit) {
+            return new FrozenStringUnit((StringUnit) unit);
+        } else if (unit instanceof NumberUnit) {
+            return new FrozenNumberUnit((NumberUnit) unit);
+        } else if (unit instanceof BooleanUnit) {
+            return new FrozenBooleanUnit((BooleanUnit) unit);
+        } else if (unit instanceof ObjectUnit) {
+            return new FrozenObjectUnit((ObjectUnit) unit);
+        } else if (unit instanceof ArrayUnit) {
+            return new FrozenArrayUnit((ArrayUnit<?>) unit);
+        } else if (unit instanceof BooleanArrayUnit) {
+            return new FrozenBooleanArrayUnit((BooleanArrayUnit) unit);
+        } else if (unit instanceof LongArrayUnit) {
+            return new FrozenLongArrayUnit((LongArrayUnit) unit);
+        } else if (unit instanceof DoubleArrayUnit) {
+            return new FrozenDoubleArrayUnit((DoubleArrayUnit) unit);
+        }
+
+        throw new RuntimeException("Can't freeze " + unit.getClass().getName() + ".");
+    }
+
+    /**
+     * Creates the exception thrown when a frozen unit is changed.
+     *
+     * @return  exception to throw
+     */
+    static RuntimeException frozen() {
+        return new RuntimeException("Frozen units can't be changed.");
+    }
+
+    /**
+     * Returns a file with given unit added, or replacing the unit with the
+     * same key at its position.
+     *
+     * @param   unit    unit to put
+     * @return          new file
+     */
+    public FrozenJsonFile with(JsonUnit unit) {
+        if (unit instanceof JsonFile) {
+            throw new RuntimeException("JsonFiles can be added to JsonFile's units only inside ArrayUnit.");
+        }
+
+        JsonUnit frozen = freeze(unit);
+        Integer position = positions.get(unit.getKey());
+
+        if (position != null) {
+            JsonUnit[] changed = members.clone();
+            changed[position] = frozen;
+
+            return new FrozenJsonFile(frozenName, changed, positions);
+        }
+
+        JsonUnit[] changed = Arrays.copyOf(members, members.length + 1);
+        changed[members.length] = frozen;
+        HashMap<String, Integer> changedPositions = new HashMap<>(positions);
+        changedPositions.put(unit.getKey(), members.length);
+
+        return new FrozenJsonFile(frozenName, changed, changedPositions);
+    }
+
+    /**
+     * Returns a file with a StringUnit of given key and value.
+     *
+     * @param   key     key of the unit
+     * @param   value   value of the unit
+     * @return          new file
+     */
+    public FrozenJsonFile with(String key, String value) {
+        return with(new FrozenStringUnit(key, value));
+    }
+
+    /**
+     * Returns a file with a BooleanUnit of given key and value.
+     *
+     * @param   key     key of the unit
+     * @param   value   value of the unit
+     * @return          new file
+     */
+    public FrozenJsonFile with(String key, boolean value) {
+        return with(new FrozenBooleanUnit(key, value));
+    }
+
+    /**
+     * Returns a file with a NumberUnit of given key and value.
+     *
+     * @param   key     key of the unit
+     * @param   value   value of the unit
+     * @return          new file
+     */
+    public FrozenJsonFile with(String key, double value) {
+        return with(new FrozenNumberUnit(key, value));
+    }
+
+    /**
+     * Returns a file without the unit of given key.
+     *
+     * @param   key     key of the unit
+     * @return          new file, or this file if there is no such unit
+     */
+    public FrozenJsonFile without(String key) {
+        Integer position = positions.get(key);
+
+        if (position == null) {
+            return this;
+        }
+
+        JsonUnit[] changed = new JsonUnit[members.length - 1];
+        System.arraycopy(members, 0, changed, 0, position);
+        System.arraycopy(members, position + 1, changed, position, changed.length - position);
+
+        return new FrozenJsonFile(frozenName, changed, index(Arrays.asList(changed)));
+    }
+
+    /**
+     * Returns this file, which is frozen already.
+     *
+     * @return  this file
+     */
+    @Override
+    public FrozenJsonFile freeze() {
+        return this;
+    }
+
+    @Override
+    public boolean alreadyUsed(String key) {
+        return positions.containsKey(key);
+    }
+
+    @Override
+    public JsonUnit get(String key) {
+        Integer position = positions.get(key);
+
+        return position == null ? null : members[position];
+    }
+
+    @Override
+    void addUnit(JsonUnit unit) {
+        throw frozen();
+    }
+
+    @Override
+    public JsonUnit remove(int position) {
+        throw frozen();
+    }
+
+    @Override
+    public JsonUnit remove(String key) {
+        throw frozen();
+    }
+
+    @Override
+    public void clear() {
+        throw frozen();
+    }
+
+    @Override
+    public String getName() {
+        return frozenName;
+    }
+
+    @Override
+    public void setName(String name) {
+        throw frozen();
+    }
+
+    @Override
+    public List<JsonUnit> getUnits() {
+        return membersView;
+    }
+
+    @Override
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        writeMembers(out, membersView, style, depth);
+    }
+
+    /**
+     * Marks units that are frozen already.
+     */
+    interface Frozen {
+    }
+
+    /**
+     * Writes a unit in given style and depth.
+     */
+    interface Renderer {
+        void render(Appendable out, JsonStyle style, int depth) throws IOException;
+    }
+
+    /**
+     * Serialized bytes of a unit in one style and depth.
+     */
+    static final class Rendering {
+
+        final JsonStyle style;
+        final int depth;
+        final byte[] bytes;
+
+        Rendering(JsonStyle style, int depth, byte[] bytes) {
+            this.style = style;
+            this.depth = depth;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Writes a unit through its cached bytes.
+     *
+     * Only byte outputs that allow it use the cache. The bytes are rendered
+     * into an output that does not, so units inside a cached unit don't
+     * keep copies of their own.
+     *
+     * @param   cached      bytes cached so far, or null
+     * @param   out         output to append to
+     * @param   style       layout to use
+     * @param   depth       nesting level of the unit
+     * @param   renderer    writes the unit without the cache
+     * @return              bytes to cache
+     * @throws  IOException if appending fails
+     */
+    static Rendering render(Rendering cached, Appendable out, JsonStyle style, int depth, Renderer renderer)
+            throws IOException {
+        if (!(out instanceof Utf8Output) || !((Utf8Output) out).cacheable) {
+            renderer.render(out, style, depth);
+            return cached;
+        }
+
+        if (cached == null || cached.style != style || cached.depth != depth) {
+            Utf8Output buffer = new Utf8Output(256);
+            buffer.cacheable = false;
+            renderer.render(buffer, style, depth);
+            buffer.flush();
+            cached = new Rendering(style, depth, Arrays.copyOf(buffer.buffer, buffer.pos));
+        }
+
+        ((Utf8Output) out).write(cached.bytes, 0, cached.bytes.length);
+
+        return cached;
+    }
+
+    static final class FrozenStringUnit extends StringUnit implements Frozen {
+
+        FrozenStringUnit(String key, String value) {
+            super(key, value);
+            // Frozen units are written over and over, so the key is
+            // encoded right away.
+            this.encodedKey = JsonStyle.encodeName(key);
+        }
+
+        FrozenStringUnit(StringUnit unit) {
+            super(unit.key, unit.value);
+            this.encodedKey = JsonStyle.encodeName(key);
+        }
+
+        @Override
+        public void setKey(String key) {
+            throw frozen();
+        }
+
+        @Override
+        public void setValue(String value) {
+            throw frozen();
+        }
+    }
+
+    static final class FrozenNumberUnit extends NumberUnit implements Frozen {
+
+        FrozenNumberUnit(String key, double value) {
+            super(key, value);
+            this.encodedKey = JsonStyle.encodeName(key);
+        }
+
+        FrozenNumberUnit(NumberUnit unit) {
+            super(unit.key, unit.value);
+            this.encodedKey = JsonStyle.encodeName(key);
+        }
+
+        @Override
+        public void setKey(String key) {
+            throw frozen();
+        }
+
+        @Override
+        public void setValue(double value) {
+            throw frozen();
+        }
+
+        @Override
+        public void setValue(int value) {
+            throw frozen();
+        }
+    }
+
+    static final class FrozenBooleanUnit extends BooleanUnit implements Frozen {
+
+        FrozenBooleanUnit(String key, boolean value) {
+            super(key, value);
+            this.encodedKey = JsonStyle.encodeName(key);
+        }
+
+        FrozenBooleanUnit(BooleanUnit unit) {
+            super(unit.key, unit.value);
+            this.encodedKey = JsonStyle.encodeName(key);
+        }
+
+        @Override
+        public void setKey(String key) {
+            throw frozen();
+        }
+
+        @Override
+        public void setValue(boolean value) {
+            throw frozen();
+        }
+    }
+
+    static final class FrozenObjectUnit extends ObjectUnit implements Frozen {
+
+        /**
+         * Is the unit fully constructed.
+         */
+        boolean sealed;
+
+        volatile Rendering rendering;
+
+        FrozenObjectUnit(ObjectUnit unit) {
+            super(unit.key, unit.values == null ? null : Arrays.asList(freezeAll(unit.values)));
+            this.encodedKey = JsonStyle.encodeName(key);
+            this.sealed = true;
+        }
+
+        @Override
+        public void add(JsonUnit unit) {
+            throw frozen();
+        }
+
+        @Override
+        public JsonUnit remove(int position) {
+            throw frozen();
+        }
+
+        @Override
+        public JsonUnit remove(String key) {
+            throw frozen();
+        }
+
+        @Override
+        public void clear() {
+            throw frozen();
+        }
+
+        @Override
+        public void setKey(String key) {
+            throw frozen();
+        }
+
+        @Override
+        public void setValue(List<JsonUnit> values) {
+            if (sealed) {
+                throw frozen();
+            }
+
+            super.setValue(values);
+        }
+
+        @Override
+        public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+            Rendering current = rendering;
+            Rendering next = render(current, out, style, depth, super::writeTo);
+
+            if (next != current) {
+                rendering = next;
+            }
+        }
+    }
+
+    static final class FrozenArrayUnit extends ArrayUnit<Object> implements Frozen {
+
+        volatile Rendering rendering;
+
+        FrozenArrayUnit(ArrayUnit<?> unit) {
+            super(unit.key, unit.values == null ? null : freezeValues(unit.values));
+            this.encodedKey = JsonStyle.encodeName(key);
+        }
+
+        /**
+         * Returns a read-only copy of given values with JsonFiles frozen.
+         */
+        static List<Object> freezeValues(List<?> values) {
+            ArrayList<Object> frozen = new ArrayList<>(values.size());
+
+            for (Object value : values) {
+                frozen.add(value instanceof JsonFile ? ((JsonFile) value).freeze() : value);
+            }
+
+            return Collections.unmodifiableList(frozen);
+        }
+
+        @Override
+        public void add(Object unit) {
+            throw frozen();
+        }
+
+        @Override
+        public void setKey(String key) {
+            throw frozen();
+        }
+
+        @Override
+        public void setValues(List<Object> values) {
+            throw frozen();
+        }
+
+        @Override
+        public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+            Rendering current = rendering;
+            Rendering next = render(current, out, style, depth, super::writeTo);
+
+            if (next != current) {
+                rendering = next;
+            }
+        }
+    }
+
+    static final class FrozenBooleanArrayUnit extends BooleanArrayUnit implements Frozen {
+
+        volatile Rendering rendering;
+
+        FrozenBooleanArrayUnit(BooleanArrayUnit unit) {
+            super(unit.key);
+            this.encodedKey = JsonStyle.encodeName(key);
+            this.words = Arrays.copyOf(unit.words, Math.max(1, (unit.size + 63) >>> 6));
+            this.size = unit.size;
+        }
+
+        @Override
+        public void ensureCapacity(int capacity) {
+            throw frozen();
+        }
+
+        @Override
+        public void add(boolean value) {
+            throw frozen();
+        }
+
+        @Override
+        public void addAll(boolean... values) {
+            throw frozen();
+        }
+
+        @Override
+        public void set(int position, boolean value) {
+            throw frozen();
+        }
+
+        @Override
+        public void clear() {
+            throw frozen();
+        }
+
+        @Override
+        public void setKey(String key) {
+            throw frozen();
+        }
+
+        @Override
+        public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+            Rendering current = rendering;
+            Rendering next = render(current, out, style, depth, super::writeTo);
+
+            if (next != current) {
+                rendering = next;
+            }
+        }
+    }
+
+    static final class FrozenLongArrayUnit extends LongArrayUnit implements Frozen {
+
+        volatile Rendering rendering;
+
+        FrozenLongArrayUnit(LongArrayUnit unit) {
+            super(unit.key, unit.toArray());
+            this.encodedKey = JsonStyle.encodeName(key);
+        }
+
+        @Override
+        public void ensureCapacity(int capacity) {
+            throw frozen();
+        }
+
+        @Override
+        public void add(long value) {
+            throw frozen();
+        }
+
+        @Override
+        public void addAll(long... values) {
+            throw frozen();
+        }
+
+        @Override
+        public void set(int position, long value) {
+            throw frozen();
+        }
+
+        @Override
+        public void clear() {
+            throw frozen();
+        }
+
+        @Override
+        public void setKey(String key) {
+            throw frozen();
+        }
+
+        @Override
+        public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+            Rendering current = rendering;
+            Rendering next = render(current, out, style, depth, super::writeTo);
+
+            if (next != current) {
+                rendering = next;
+            }
+        }
+    }
+
+    static final class FrozenDoubleArrayUnit extends DoubleArrayUnit implements Frozen {
+
+        volatile Rendering rendering;
+
+        FrozenDoubleArrayUnit(DoubleArrayUnit unit) {
+            super(unit.key, unit.toArray());
+            this.encodedKey = JsonStyle.encodeName(key);
+        }
+
+        @Override
+        public void ensureCapacity(int capacity) {
+            throw frozen();
+        }
+
+        @Override
+        public void add(double value) {
+            throw frozen();
+        }
+
+        @Override
+        public void addAll(double... values) {
+            throw frozen();
+        }
+
+        @Override
+        public void set(int position, double value) {
+            throw frozen();
+        }
+
+        @Override
+        public void clear() {
+            throw frozen();
+        }
+
+        @Override
+        public void setKey(String key) {
+            throw frozen();
+        }
+
+        @Override
+        public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+            Rendering current = rendering;
+            Rendering next = render(current, out, style, depth, super::writeTo);
+
+            if (next != current) {
+                rendering = next;
+            }
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package fi.esupponen.jsonparser;
 
-import java.util.LinkedList;
-import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.DoubleConsumer;
 
 /**
  * @author      Essi Supponen [essi.supponen@cs.tamk.fi]
- * @version     2018-1217
+ * @version     2026-1018
  * @since       2018-1120
  */
 public class JsonFile implements JsonUnit {
@@ -18,7 +30,22 @@ public class JsonFile implements JsonUnit {
     /**
      * Units of the file.
      */
-    LinkedList<JsonUnit> units;
+    ArrayList<JsonUnit> units;
+
+    /**
+     * Read-only view of units given out by getUnits().
+     */
+    List<JsonUnit> unitsView;
+
+    /**
+     * Units of the file by their keys.
+     */
+    KeyIndex index;
+
+    /**
+     * Length of the last toString() result, used to size the next builder.
+     */
+    int lastLength;
 
     /**
      * Constructs an object with given name.
@@ -27,7 +54,18 @@ public class JsonFile implements JsonUnit {
      */
     public JsonFile(String name) {
         this.name = name;
-        this.units = new LinkedList<>();
+        this.units = new ArrayList<>();
+        this.unitsView = Collections.unmodifiableList(units);
+        this.index = new KeyIndex(0);
+        this.lastLength = 16;
+    }
+
+    /**
+     * Constructs a file keeping its units elsewhere. Subclasses using this
+     * override every method using units and index.
+     */
+    JsonFile() {
+        this.lastLength = 16;
     }
 
     /**
@@ -37,16 +75,27 @@ public class JsonFile implements JsonUnit {
      * @return          already used
      */
     public boolean alreadyUsed(String key) {
-        boolean alreadyUsed = false;
+        return index.containsKey(key);
+    }
 
-        for (JsonUnit unit : units) {
-            if (unit.getKey().equals(key)) {
-                alreadyUsed = true;
-                break;
-            }
-        }
+    /**
+     * Returns the unit with given key.
+     *
+     * @param   key     key to find
+     * @return          unit with the key, or null if there is none
+     */
+    public JsonUnit get(String key) {
+        return index.get(key);
+    }
 
-        return alreadyUsed;
+    /**
+     * Adds given unit to the end of units and to the index.
+     *
+     * @param   unit    unit to be added
+     */
+    void addUnit(JsonUnit unit) {
+        units.add(unit);
+        index.put(unit.getKey(), unit);
     }
 
     /**
@@ -63,7 +112,7 @@ public class JsonFile implements JsonUnit {
                 throw new RuntimeException("JsonFiles can be added to JsonFile's units only inside ArrayUnit.");
             } else {
                 if (!alreadyUsed(element.getKey())) {
-                    units.add(element);
+                    addUnit(element);
                 } else {
                     throw new RuntimeException("Can't add new unit with already existing key.");
                 }
@@ -79,7 +128,7 @@ public class JsonFile implements JsonUnit {
      */
     public void add(String key, String value) {
         if (!alreadyUsed(key)) {
-            units.add(new StringUnit(key, value));
+            addUnit(new StringUnit(key, value));
         } else {
             throw new RuntimeException("Can't add new unit with already existing key.");
         }
@@ -93,7 +142,7 @@ public class JsonFile implements JsonUnit {
      */
     public void add(String key, boolean value) {
         if (!alreadyUsed(key)) {
-            units.add(new BooleanUnit(key, value));
+            addUnit(new BooleanUnit(key, value));
         } else {
             throw new RuntimeException("Can't add new unit with already existing key.");
         }
@@ -107,7 +156,7 @@ public class JsonFile implements JsonUnit {
      */
     public void add(String key, int value) {
         if (!alreadyUsed(key)) {
-            units.add(new NumberUnit(key, value));
+            addUnit(new NumberUnit(key, value));
         } else {
             throw new RuntimeException("Can't add new unit with already existing key.");
         }
@@ -121,7 +170,7 @@ public class JsonFile implements JsonUnit {
      */
     public void add(String key, double value) {
         if (!alreadyUsed(key)) {
-            units.add(new NumberUnit(key, value));
+            addUnit(new NumberUnit(key, value));
         } else {
             throw new RuntimeException("Can't add new unit with already existing key.");
         }
@@ -133,9 +182,9 @@ public class JsonFile implements JsonUnit {
      * @param   key     key for new unit
      * @param   values  values for new unit
      */
-    public void add(String key, LinkedList<JsonUnit> values) {
+    public void add(String key, List<JsonUnit> values) {
         if (!alreadyUsed(key)) {
-            units.add(new ObjectUnit(key, values));
+            addUnit(new ObjectUnit(key, values));
         } else {
             throw new RuntimeException("Can't add new unit with already existing key.");
         }
@@ -150,9 +199,9 @@ public class JsonFile implements JsonUnit {
      * @param   key     key for new unit
      * @param   values  values for new unit
      */
-    public void addArray(String key, LinkedList<? extends Object> values) {
+    public void addArray(String key, List<? extends Object> values) {
         if (!alreadyUsed(key)) {
-            units.add(new ArrayUnit(key, values));
+            addUnit(new ArrayUnit(key, values));
         } else {
             throw new RuntimeException("Can't add new unit with already existing key.");
         }
@@ -161,7 +210,7 @@ public class JsonFile implements JsonUnit {
     /**
      * Adds a new ArrayUnit to units according to given parameters.
      *
-     * Creates new LinkedList of Strings. Adds all the given values to the
+     * Creates new ArrayList of Strings. Adds all the given values to the
      * list. Adds new ArrayUnit to units using given key and created list.
      *
      * @param   key     key for new unit
@@ -169,59 +218,45 @@ public class JsonFile implements JsonUnit {
      */
     public void addArray(String key, String... values) {
         if (!alreadyUsed(key)) {
-            LinkedList<String> arrayValues = new LinkedList<>();
+            ArrayList<String> arrayValues = new ArrayList<>(values.length);
 
             for (String value : values) {
                 arrayValues.add(value);
             }
 
-            units.add(new ArrayUnit(key, arrayValues));
+            addUnit(new ArrayUnit(key, arrayValues));
         } else {
             throw new RuntimeException("Can't add new unit with already existing key.");
         }
     }
 
     /**
-     * Adds a new ArrayUnit to units according to given parameters.
+     * Adds a new BooleanArrayUnit to units according to given parameters.
      *
-     * Creates new LinkedList of Booleans. Adds all the given values to the
-     * list. Adds new ArrayUnit to units using given key and created list.
+     * The values are stored as bits, without boxing them to Booleans.
      *
      * @param   key     key for new unit
      * @param   values  values for new unit
      */
     public void addArray(String key, boolean... values) {
         if (!alreadyUsed(key)) {
-            LinkedList<Boolean> arrayValues = new LinkedList<>();
-
-            for (boolean value : values) {
-                arrayValues.add(value);
-            }
-
-            units.add(new ArrayUnit(key, arrayValues));
+            addUnit(new BooleanArrayUnit(key, values));
         } else {
             throw new RuntimeException("Can't add new unit with already existing key.");
         }
     }
 
     /**
-     * Adds a new ArrayUnit to units according to given parameters.
+     * Adds a new DoubleArrayUnit to units according to given parameters.
      *
-     * Creates new LinkedList of Doubles. Adds all the given values to the
-     * list. Adds new ArrayUnit to units using given key and created list.
+     * The values are copied to a double[], without boxing them.
      *
      * @param   key     key for new unit
      * @param   values  values for new unit
      */
     public void addArray(String key, double... values) {
         if (!alreadyUsed(key)) {
-            LinkedList<Double> arrayValues = new LinkedList<>();
-
-            for (double value : values) {
-                arrayValues.add(value);
-            }
-
-            units.add(new ArrayUnit(key, arrayValues));
+            addUnit(new DoubleArrayUnit(key, values));
         } else {
             throw new RuntimeException("Can't add new unit with already existing key.");
         }
@@ -230,7 +265,7 @@ public class JsonFile implements JsonUnit {
     /**
      * Adds a new ArrayUnit to units according to given parameters.
      *
-     * Creates new LinkedList of JsonFiles. Adds all the given values to the
+     * Creates new ArrayList of JsonFiles. Adds all the given values to the
      * list. Adds new ArrayUnit to units using given key and created list.
      *
      * @param   key     key for new unit
@@ -238,13 +273,13 @@ public class JsonFile implements JsonUnit {
      */
     public void addArray(String key, JsonFile... values) {
         if (!alreadyUsed(key)) {
-            LinkedList<JsonFile> arrayValues = new LinkedList<>();
+            ArrayList<JsonFile> arrayValues = new ArrayList<>(values.length);
 
             for (JsonFile value : values) {
                 arrayValues.add(value);
             }
 
-            units.add(new ArrayUnit(key, arrayValues));
+            addUnit(new ArrayUnit(key, arrayValues));
         } else {
             throw new RuntimeException("Can't add new unit with already existing key.");
         }
@@ -253,63 +288,212 @@ public class JsonFile implements JsonUnit {
     /**
      * Parses the json-file.
      *
-     * Creates the json-file using PrintWriter. Goes trough the units
-     * and calls their jsonPrint()-methods.
+     * Creates the json-file pretty printed with two spaces per level.
      */
     public void parse() {
-        try {
-            PrintWriter writer = new PrintWriter(name + ".json", "UTF-8");
+        parse(JsonStyle.PRETTY);
+    }
+
+    /**
+     * Parses the json-file using given style.
+     *
+     * Creates the json-file and writes the units to it as UTF-8. Multiline
+     * styles end the file with a line break. Large arrays of JsonFiles
+     * among the units are rendered in parallel on the common pool, see
+     * ParallelJsonWriter. The bytes are the same either way.
+     *
+     * @param   style   layout of the file
+     * @throws  UncheckedIOException if the file can't be written
+     */
+    public void parse(JsonStyle style) {
+        try (ParallelJsonWriter writer = new ParallelJsonWriter()) {
+            writer.parse(this, style);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the json-file to given stream pretty printed.
+     *
+     * @param   out     stream to write to
+     * @throws  IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        writeTo(out, JsonStyle.PRETTY);
+    }
 
-            writer.println("{");
+    /**
+     * Writes the json-file to given stream as UTF-8 using given style.
+     *
+     * Writes the same bytes parse() would write to the file. The bytes are
+     * encoded straight from the units to one buffer, and the stream gets
+     * them in large blocks. The stream is flushed but not closed.
+     *
+     * @param   out     stream to write to
+     * @param   style   layout to use
+     * @throws  IOException if writing fails
+     */
+    public void writeTo(OutputStream out, JsonStyle style) throws IOException {
+        JsonStreamWriter writer = new JsonStreamWriter(out, style);
+        writer.unit(this);
+        writer.flush();
+    }
 
-            for (int i = 0; i < units.size(); i++) {
-                units.get(i).jsonPrint("  ", writer);
+    /**
+     * Writes the json-file to given channel pretty printed.
+     *
+     * @param   channel     channel to write to
+     * @throws  IOException if writing fails
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        writeTo(channel, JsonStyle.PRETTY);
+    }
 
-                if (i != units.size() - 1) {
-                    writer.print(",");
-                }
+    /**
+     * Writes the json-file to given channel as UTF-8 using given style.
+     *
+     * Works like writeTo(OutputStream, JsonStyle). The channel should be in
+     * blocking mode. It is not closed.
+     *
+     * @param   channel     channel to write to
+     * @param   style       layout to use
+     * @throws  IOException if writing fails
+     */
+    public void writeTo(WritableByteChannel channel, JsonStyle style) throws IOException {
+        JsonStreamWriter writer = new JsonStreamWriter(channel, style);
+        writer.unit(this);
+        writer.flush();
+    }
+
+    /**
+     * Writes the json-file pretty printed to given path on given executor.
+     *
+     * @param   path        file to write
+     * @param   executor    executor to write on
+     * @return              future completed when the file is written
+     */
+    public CompletableFuture<Void> writeAsync(Path path, Executor executor) {
+        return writeAsync(path, JsonStyle.PRETTY, executor, null);
+    }
+
+    /**
+     * Writes the json-file to given path on given executor.
+     *
+     * The file is frozen on the calling thread first, so it can be changed
+     * while it is being written. If progress is not null, it gets the share
+     * of units written so far, from 0 to 1, on the writing thread. It is
+     * called once for every percent, so it is called at most a hundred
+     * times however many units there are.
+     *
+     * @param   path        file to write
+     * @param   style       layout to use
+     * @param   executor    executor to write on
+     * @param   progress    receives the share of units written, or null
+     * @return              future completed when the file is written, or
+     *                      completed exceptionally if writing fails
+     */
+    public CompletableFuture<Void> writeAsync(Path path, JsonStyle style, Executor executor,
+            DoubleConsumer progress) {
+        FrozenJsonFile snapshot = freeze();
+
+        return CompletableFuture.runAsync(() -> {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                snapshot.writeTo(channel, style, progress);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Writes the json-file to given channel reporting progress.
+     *
+     * @param   channel     channel to write to
+     * @param   style       layout to use
+     * @param   progress    receives the share of units written, or null
+     * @throws  IOException if writing fails
+     */
+    void writeTo(WritableByteChannel channel, JsonStyle style, DoubleConsumer progress) throws IOException {
+        if (progress == null) {
+            writeTo(channel, style);
+            return;
+        }
+
+        List<JsonUnit> members = getUnits();
+        JsonStreamWriter writer = new JsonStreamWriter(channel, style);
+        writer.beginObject();
+        int reported = 0;
+
+        for (int i = 0; i < members.size(); i++) {
+            writer.unit(members.get(i));
+            int percent = (int) ((i + 1) * 100L / members.size());
 
-                writer.println();
+            if (percent > reported) {
+                reported = percent;
+                progress.accept(percent / 100.0);
             }
+        }
 
-            writer.println("}");
+        writer.endObject();
+        writer.flush();
 
-            writer.close();
-        } catch (Exception e) {
-            System.out.println("Something went wrong!");
+        if (reported < 100) {
+            progress.accept(1.0);
         }
     }
 
     /**
-     * Writes the expression of this unit to given json-file.
-     * 
-     * Uses leadingSpaces to have proper indentation. Calls every units'
-     * jsonPrint()-methods.
+     * Removes the unit at given position.
      *
-     * @param   leadingSpaces   indentation
-     * @param   writer          json-file   
+     * @param   position    position of the unit
+     * @return              removed unit
      */
-    public void jsonPrint(String leadingSpaces, PrintWriter writer) {
-        writer.println(leadingSpaces + "{");
+    public JsonUnit remove(int position) {
+        JsonUnit unit = units.remove(position);
+        index.remove(unit.getKey());
 
-        for (int i = 0; i < units.size(); i++) {
-            units.get(i).jsonPrint(leadingSpaces + "  ", writer);
+        return unit;
+    }
 
-            if (i != units.size() - 1) {
-                writer.print(",");
-            }
+    /**
+     * Removes the unit with given key.
+     *
+     * @param   key     key of the unit
+     * @return          removed unit, or null if there was none
+     */
+    public JsonUnit remove(String key) {
+        JsonUnit unit = index.remove(key);
 
-            writer.println();
+        if (unit != null) {
+            units.remove(unit);
         }
 
-        writer.print(leadingSpaces + "}");
+        return unit;
     }
 
     /**
      * Clears units-list.
+     *
+     * The list and the index keep their room, so filling the file again
+     * with about as many units allocates nothing for them.
      */
     public void clear() {
         units.clear();
+        index.clear();
+    }
+
+    /**
+     * Returns an immutable snapshot of the file.
+     *
+     * The units are copied once. The snapshot can be read from any thread,
+     * and changed copies of it share their unchanged units with it.
+     *
+     * @return  frozen copy of the file
+     */
+    public FrozenJsonFile freeze() {
+        return new FrozenJsonFile(getName(), getUnits());
     }
 
     /**
@@ -333,12 +517,15 @@ public class JsonFile implements JsonUnit {
     }
 
     /**
-     * Returns units in a LinkedList.
+     * Returns units as a read-only list.
+     *
+     * The list is a view, so it follows later changes. Units are added and
+     * removed with add() and remove(), which keep the key index up to date.
      *
      * @return  units
      */
-    public LinkedList<JsonUnit> getUnits() {
-        return units;
+    public List<JsonUnit> getUnits() {
+        return unitsView;
     }
 
     /**
@@ -351,24 +538,66 @@ public class JsonFile implements JsonUnit {
     }
 
     /**
-     * Returns a string representation of the object.
+     * Appends given units inside curly brackets to given output.
      *
-     * @return  string representation of object
+     * Used by JsonFile and ObjectUnit. In multiline styles every unit is on
+     * its own line one level deeper than depth.
+     *
+     * @param   out     output to append to
+     * @param   units   units to append
+     * @param   style   layout to use
+     * @param   depth   nesting level of the brackets
+     * @throws  IOException if appending fails
      */
-    @Override
-    public String toString() {
-        String str = "{";
+    static void writeMembers(Appendable out, List<JsonUnit> units, JsonStyle style, int depth) throws IOException {
+        if (units.isEmpty()) {
+            out.append("{}");
+            return;
+        }
+
+        out.append('{');
+
+        Iterator<JsonUnit> iterator = units.iterator();
 
-        for (int i = 0; i < units.size(); i++) {
-            str += units.get(i).toString();
+        while (iterator.hasNext()) {
+            style.newline(out, depth + 1);
+            iterator.next().writeTo(out, style, depth + 1);
 
-            if (i != units.size() - 1) {
-                str += ", ";
+            if (iterator.hasNext()) {
+                out.append(style.separator);
             }
         }
 
-        str += "}";
+        style.newline(out, depth);
+        out.append('}');
+    }
+
+    /**
+     * Appends the units inside curly brackets to given output.
+     *
+     * @param   out     output to append to
+     * @param   style   layout to use
+     * @param   depth   nesting level of the unit
+     * @throws  IOException if appending fails
+     */
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        writeMembers(out, units, style, depth);
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * Renders the whole tree into one builder, sized by the length of the
+     * previous result.
+     *
+     * @return  string representation of object
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(lastLength);
+        writeTo(builder);
+        lastLength = builder.length();
 
-        return str;
+        return builder.toString();
     }
 }
\ No newline at end of file
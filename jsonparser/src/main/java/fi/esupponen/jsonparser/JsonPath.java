@@ -0,0 +1,681 @@
+package fi.esupponen.jsonparser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compiled path to values inside a tree of units.
+ *
+ * pointer() compiles a JSON Pointer (RFC 6901): "" is the root, and every
+ * "/" is followed by a key, or an index of an array, with "~" written as
+ * "~0" and "/" as "~1". compile() understands two more kinds of segments:
+ *
+ *  *               every member of an object or value of an array
+ *  ?key            those members or values that are objects with key
+ *  ?key=literal    ... whose key has the value literal, also with !=, <,
+ *                  <=, > and >=
+ *
+ * A literal is a number, true, false, null, a string in double quotes or
+ * any other text taken as a string. Numbers are compared as numbers and
+ * strings as strings. Instead of a key, "@" compares the value itself, so
+ * "/prices/?@>10" matches the prices above ten. For example
+ * "/records/?type=food/price" gives the price of every food record.
+ *
+ * Members are found through the key index of JsonFile and ObjectUnit, so
+ * a path without wildcards or filters costs one lookup per segment. The
+ * path is parsed once and can then be used from any number of threads.
+ *
+ * Leaves are given as their values: String, Double, Boolean or null for
+ * units, and the values themselves for the values of arrays. Objects and
+ * arrays are given as their units.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public final class JsonPath {
+
+    /**
+     * Kinds of segments.
+     */
+    static final byte KEY = 0;
+    static final byte WILDCARD = 1;
+    static final byte FILTER = 2;
+
+    /**
+     * Kinds of filter comparisons.
+     */
+    static final byte EXISTS = 0;
+    static final byte EQUAL = 1;
+    static final byte NOT_EQUAL = 2;
+    static final byte LESS = 3;
+    static final byte LESS_OR_EQUAL = 4;
+    static final byte GREATER = 5;
+    static final byte GREATER_OR_EQUAL = 6;
+
+    /**
+     * Marks a value that is not there, as null is a value.
+     */
+    static final Object MISSING = new Object();
+
+    /**
+     * The path as it was given.
+     */
+    final String source;
+
+    /**
+     * Kind of every segment.
+     */
+    final byte[] kinds;
+
+    /**
+     * Key of every KEY segment and key compared by every FILTER segment,
+     * null for "@".
+     */
+    final String[] keys;
+
+    /**
+     * Key of every KEY segment as an index of an array, or -1.
+     */
+    final int[] indexes;
+
+    /**
+     * Comparison of every FILTER segment.
+     */
+    final byte[] operators;
+
+    /**
+     * Literal of every FILTER segment: String, Double, Boolean or null.
+     */
+    final Object[] literals;
+
+    /**
+     * Does the path have only KEY segments.
+     */
+    final boolean singular;
+
+    /**
+     * Constructs a path with room for given number of segments.
+     */
+    JsonPath(String source, int count) {
+        this.source = source;
+        this.kinds = new byte[count];
+        this.keys = new String[count];
+        this.indexes = new int[count];
+        this.operators = new byte[count];
+        this.literals = new Object[count];
+        this.singular = true;
+    }
+
+    /**
+     * Constructs a copy of given path knowing whether it is singular.
+     *
+     * The arrays are filled after the first constructor, so they are
+     * handed to the final fields of a copy to make them safe to read from
+     * other threads.
+     */
+    JsonPath(JsonPath path, boolean singular) {
+        this.source = path.source;
+        this.kinds = path.kinds;
+        this.keys = path.keys;
+        this.indexes = path.indexes;
+        this.operators = path.operators;
+        this.literals = path.literals;
+        this.singular = singular;
+    }
+
+    /**
+     * Compiles a JSON Pointer.
+     *
+     * @param   pointer     pointer to compile
+     * @return              compiled path
+     * @throws  RuntimeException if the pointer is not valid
+     */
+    public static JsonPath pointer(String pointer) {
+        return parse(pointer, false);
+    }
+
+    /**
+     * Compiles a path that may have wildcards and filters.
+     *
+     * @param   path    path to compile
+     * @return          compiled path
+     * @throws  RuntimeException if the path is not valid
+     */
+    public static JsonPath compile(String path) {
+        return parse(path, true);
+    }
+
+    /**
+     * Escapes a key for a pointer, writing "~" as "~0" and "/" as "~1".
+     *
+     * @param   key     key to escape
+     * @return          escaped key
+     */
+    public static String escape(String key) {
+        if (key.indexOf('~') < 0 && key.indexOf('/') < 0) {
+            return key;
+        }
+
+        return key.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * Parses a path.
+     *
+     * @param   path        path to parse
+     * @param   extended    are wildcards and filters allowed
+     * @return              compiled path
+     */
+    static JsonPath parse(String path, boolean extended) {
+        if (!path.isEmpty() && path.charAt(0) != '/') {
+            throw error(path, "it must be empty or start with '/'");
+        }
+
+        int count = 0;
+
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                count++;
+            }
+        }
+
+        JsonPath compiled = new JsonPath(path, count);
+        boolean singular = true;
+        int start = 1;
+
+        for (int i = 0; i < count; i++) {
+            int end = path.indexOf('/', start);
+
+            if (end < 0) {
+                end = path.length();
+            }
+
+            String raw = path.substring(start, end);
+            start = end + 1;
+            compiled.indexes[i] = -1;
+
+            if (extended && raw.equals("*")) {
+                compiled.kinds[i] = WILDCARD;
+                singular = false;
+            } else if (extended && raw.startsWith("?")) {
+                compiled.kinds[i] = FILTER;
+                compiled.parseFilter(i, raw.substring(1));
+                singular = false;
+            } else {
+                String key = unescape(path, raw);
+                compiled.kinds[i] = KEY;
+                compiled.keys[i] = key;
+                compiled.indexes[i] = arrayIndex(key);
+            }
+        }
+
+        return new JsonPath(compiled, singular);
+    }
+
+    /**
+     * Parses the filter of segment i.
+     *
+     * @param   i       number of the segment
+     * @param   filter  filter without the question mark
+     */
+    void parseFilter(int i, String filter) {
+        int at = 0;
+
+        while (at < filter.length() && "=!<>".indexOf(filter.charAt(at)) < 0) {
+            at++;
+        }
+
+        String key = unescape(source, filter.substring(0, at));
+
+        if (key.isEmpty()) {
+            throw error(source, "a filter needs a key");
+        }
+
+        keys[i] = key.equals("@") ? null : key;
+
+        if (at == filter.length()) {
+            operators[i] = EXISTS;
+            return;
+        }
+
+        String rest = filter.substring(at);
+        int length = 2;
+
+        if (rest.startsWith("!=")) {
+            operators[i] = NOT_EQUAL;
+        } else if (rest.startsWith("<=")) {
+            operators[i] = LESS_OR_EQUAL;
+        } else if (rest.startsWith(">=")) {
+            operators[i] = GREATER_OR_EQUAL;
+        } else if (rest.startsWith("=")) {
+            operators[i] = EQUAL;
+            length = rest.startsWith("==") ? 2 : 1;
+        } else if (rest.startsWith("<")) {
+            operators[i] = LESS;
+            length = 1;
+        } else if (rest.startsWith(">")) {
+            operators[i] = GREATER;
+            length = 1;
+        } else {
+            throw error(source, "unknown operator in filter '" + filter + "'");
+        }
+
+        literals[i] = literal(unescape(source, rest.substring(length)));
+    }
+
+    /**
+     * Parses a literal of a filter.
+     *
+     * @param   text    literal
+     * @return          String, Double, Boolean or null
+     */
+    static Object literal(String text) {
+        if (text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"') {
+            return text.substring(1, text.length() - 1);
+        }
+
+        switch (text) {
+            case "true":
+                return Boolean.TRUE;
+            case "false":
+                return Boolean.FALSE;
+            case "null":
+                return null;
+            default:
+                break;
+        }
+
+        if (!text.isEmpty() && (text.charAt(0) == '-' || Character.isDigit(text.charAt(0)))) {
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                // Not a number, so it is a string.
+            }
+        }
+
+        return text;
+    }
+
+    /**
+     * Replaces "~1" with "/" and "~0" with "~".
+     *
+     * @param   path    whole path, for the error message
+     * @param   raw     segment to unescape
+     * @return          unescaped segment
+     */
+    static String unescape(String path, String raw) {
+        int tilde = raw.indexOf('~');
+
+        if (tilde < 0) {
+            return raw;
+        }
+
+        StringBuilder builder = new StringBuilder(raw.length());
+        builder.append(raw, 0, tilde);
+
+        for (int i = tilde; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+
+            if (c != '~') {
+                builder.append(c);
+            } else if (i + 1 < raw.length() && raw.charAt(i + 1) == '0') {
+                builder.append('~');
+                i++;
+            } else if (i + 1 < raw.length() && raw.charAt(i + 1) == '1') {
+                builder.append('/');
+                i++;
+            } else {
+                throw error(path, "'~' must be followed by '0' or '1'");
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns the key as an index of an array: "0" or digits not starting
+     * with zero.
+     *
+     * @param   key     key to convert
+     * @return          index, or -1 if the key is not one
+     */
+    static int arrayIndex(String key) {
+        int length = key.length();
+
+        if (length == 0 || length > 9 || (key.charAt(0) == '0' && length > 1)) {
+            return -1;
+        }
+
+        int index = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+
+            index = index * 10 + (c - '0');
+        }
+
+        return index;
+    }
+
+    static RuntimeException error(String path, String message) {
+        return new RuntimeException("Bad path \"" + path + "\": " + message + ".");
+    }
+
+    /**
+     * Does the path have no wildcards or filters, so it matches at most
+     * one value.
+     *
+     * @return  is the path singular
+     */
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * Returns the first value the path matches.
+     *
+     * @param   root    unit to start from
+     * @return          value, or null if there is none or it is null
+     */
+    public Object get(JsonUnit root) {
+        Object node = first(root);
+
+        return node == MISSING ? null : value(node);
+    }
+
+    /**
+     * Returns the first unit the path matches. Values of arrays are not
+     * units, except the objects in them.
+     *
+     * @param   root    unit to start from
+     * @return          unit, or null if the match is not an unit
+     */
+    public JsonUnit getUnit(JsonUnit root) {
+        Object node = first(root);
+
+        return node instanceof JsonUnit ? (JsonUnit) node : null;
+    }
+
+    /**
+     * Does the path match anything, even a null.
+     *
+     * @param   root    unit to start from
+     * @return          is there a match
+     */
+    public boolean exists(JsonUnit root) {
+        return first(root) != MISSING;
+    }
+
+    /**
+     * Returns every value the path matches, in the order of the tree.
+     *
+     * @param   root    unit to start from
+     * @return          values
+     */
+    public List<Object> getAll(JsonUnit root) {
+        List<Object> values = new ArrayList<>();
+        forEach(root, values::add);
+
+        return values;
+    }
+
+    /**
+     * Gives every value the path matches to given action.
+     *
+     * @param   root    unit to start from
+     * @param   action  receives the values
+     */
+    public void forEach(JsonUnit root, Consumer<Object> action) {
+        walk(root, 0, (node) -> {
+            action.accept(value(node));
+
+            return true;
+        });
+    }
+
+    /**
+     * Finds the first match.
+     *
+     * @param   root    unit to start from
+     * @return          matched node, or MISSING
+     */
+    Object first(JsonUnit root) {
+        if (singular) {
+            Object node = root;
+
+            for (int i = 0; i < kinds.length && node != MISSING; i++) {
+                node = child(node, keys[i], indexes[i]);
+            }
+
+            return node;
+        }
+
+        Object[] found = {MISSING};
+        walk(root, 0, (node) -> {
+            found[0] = node;
+
+            return false;
+        });
+
+        return found[0];
+    }
+
+    /**
+     * Visits matched nodes.
+     */
+    interface Visitor {
+
+        /**
+         * Receives a matched node.
+         *
+         * @param   node    matched node
+         * @return          should the walk go on
+         */
+        boolean visit(Object node);
+    }
+
+    /**
+     * Matches the segments from given one on below given node.
+     *
+     * @param   node    node to match below
+     * @param   step    number of the segment to match
+     * @param   visitor receives the matches
+     * @return          should the walk go on
+     */
+    boolean walk(Object node, int step, Visitor visitor) {
+        if (step == kinds.length) {
+            return visitor.visit(node);
+        }
+
+        if (kinds[step] == KEY) {
+            Object child = child(node, keys[step], indexes[step]);
+
+            return child == MISSING || walk(child, step + 1, visitor);
+        }
+
+        if (node instanceof JsonFile) {
+            return walkAll(((JsonFile) node).getUnits(), step, visitor);
+        } else if (node instanceof ObjectUnit) {
+            List<JsonUnit> values = ((ObjectUnit) node).getValues();
+
+            return values == null || walkAll(values, step, visitor);
+        } else if (node instanceof ArrayUnit) {
+            List<?> values = ((ArrayUnit<?>) node).getValues();
+
+            return values == null || walkAll(values, step, visitor);
+        } else if (node instanceof DoubleArrayUnit) {
+            DoubleArrayUnit array = (DoubleArrayUnit) node;
+
+            for (int i = 0; i < array.size(); i++) {
+                if (!walkChild(array.get(i), step, visitor)) {
+                    return false;
+                }
+            }
+        } else if (node instanceof LongArrayUnit) {
+            LongArrayUnit array = (LongArrayUnit) node;
+
+            for (int i = 0; i < array.size(); i++) {
+                if (!walkChild(array.get(i), step, visitor)) {
+                    return false;
+                }
+            }
+        } else if (node instanceof BooleanArrayUnit) {
+            BooleanArrayUnit array = (BooleanArrayUnit) node;
+
+            for (int i = 0; i < array.size(); i++) {
+                if (!walkChild(array.get(i), step, visitor)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    boolean walkAll(List<?> children, int step, Visitor visitor) {
+        for (int i = 0; i < children.size(); i++) {
+            if (!walkChild(children.get(i), step, visitor)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Matches a child of a wildcard or filter segment and goes on below it.
+     */
+    boolean walkChild(Object child, int step, Visitor visitor) {
+        if (kinds[step] == FILTER && !accepts(child, step)) {
+            return true;
+        }
+
+        return walk(child, step + 1, visitor);
+    }
+
+    /**
+     * Returns a member of an object or a value of an array.
+     *
+     * @param   node    object or array
+     * @param   key     key of the member
+     * @param   index   key as an index, or -1
+     * @return          child, or MISSING
+     */
+    static Object child(Object node, String key, int index) {
+        if (node instanceof JsonFile) {
+            JsonUnit unit = ((JsonFile) node).get(key);
+
+            return unit == null ? MISSING : unit;
+        } else if (node instanceof ObjectUnit) {
+            JsonUnit unit = ((ObjectUnit) node).get(key);
+
+            return unit == null ? MISSING : unit;
+        } else if (index < 0) {
+            return MISSING;
+        } else if (node instanceof ArrayUnit) {
+            List<?> values = ((ArrayUnit<?>) node).getValues();
+
+            return values == null || index >= values.size() ? MISSING : values.get(index);
+        } else if (node instanceof DoubleArrayUnit) {
+            DoubleArrayUnit array = (DoubleArrayUnit) node;
+
+            return index < array.size() ? (Object) array.get(index) : MISSING;
+        } else if (node instanceof LongArrayUnit) {
+            LongArrayUnit array = (LongArrayUnit) node;
+
+            return index < array.size() ? (Object) array.get(index) : MISSING;
+        } else if (node instanceof BooleanArrayUnit) {
+            BooleanArrayUnit array = (BooleanArrayUnit) node;
+
+            return index < array.size() ? (Object) array.get(index) : MISSING;
+        }
+
+        return MISSING;
+    }
+
+    /**
+     * Returns the value of a node: the value of a leaf unit, or the node.
+     *
+     * @param   node    matched node
+     * @return          value
+     */
+    static Object value(Object node) {
+        if (node instanceof StringUnit) {
+            return ((StringUnit) node).getValue();
+        } else if (node instanceof NumberUnit) {
+            return ((NumberUnit) node).getValue();
+        } else if (node instanceof BooleanUnit) {
+            return ((BooleanUnit) node).getValue();
+        }
+
+        return node;
+    }
+
+    /**
+     * Does the filter of given segment accept given child.
+     *
+     * @param   child   member or value to test
+     * @param   step    number of the segment
+     * @return          is the child accepted
+     */
+    boolean accepts(Object child, int step) {
+        Object compared = keys[step] == null ? child : child(child, keys[step], -1);
+
+        if (compared == MISSING) {
+            return false;
+        }
+
+        if (operators[step] == EXISTS) {
+            return true;
+        }
+
+        Object value = value(compared);
+        Object literal = literals[step];
+        int order;
+
+        if (literal instanceof Double && value instanceof Number) {
+            order = Double.compare(((Number) value).doubleValue(), (Double) literal);
+
+            // Double.compare() tells 0.0 and -0.0 apart, JSON does not.
+            if (((Number) value).doubleValue() == (Double) literal) {
+                order = 0;
+            }
+        } else if (literal instanceof String && value instanceof String) {
+            order = ((String) value).compareTo((String) literal);
+        } else if (literal == null ? value == null : literal.equals(value)) {
+            order = 0;
+        } else {
+            return operators[step] == NOT_EQUAL;
+        }
+
+        switch (operators[step]) {
+            case EQUAL:
+                return order == 0;
+            case NOT_EQUAL:
+                return order != 0;
+            case LESS:
+                return order < 0;
+            case LESS_OR_EQUAL:
+                return order <= 0;
+            case GREATER:
+                return order > 0;
+            default:
+                return order >= 0;
+        }
+    }
+
+    /**
+     * Returns the path as it was given.
+     *
+     * @return  source of the path
+     */
+    @Override
+    public String toString() {
+        return source;
+    }
+}
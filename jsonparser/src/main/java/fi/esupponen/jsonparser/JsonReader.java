@@ -0,0 +1,1341 @@
+package fi.esupponen.jsonparser;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * Pull parser that reads JSON one token at a time.
+ *
+ * Reads UTF-8 bytes through a small fixed buffer, so the whole input is
+ * never held in memory. peek() tells the type of the next token and next()
+ * consumes it. Values of the consumed token are available through
+ * getString(), getNumber() and getBoolean(). readFile() uses the same
+ * tokens to build JsonFile trees in a single pass.
+ *
+ * A reader constructed with a FileChannel maps the file to memory in large
+ * windows and tokenizes straight from the mapped bytes, so the file is
+ * never copied to the heap. Windows follow each other without overlap, and
+ * tokens crossing a window boundary are read like tokens crossing the end
+ * of the stream buffer.
+ *
+ * Names are interned in a small table keyed by their raw bytes, so the
+ * records of a large array share their key strings, and names already
+ * seen are not decoded again. String values can be interned the same way
+ * with setInternValues().
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class JsonReader implements Closeable {
+
+    /**
+     * Size of the input buffer.
+     */
+    static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Number of slots in the tables of interned names and values.
+     */
+    static final int NAME_TABLE_SIZE = 1024;
+    static final int VALUE_TABLE_SIZE = 1024;
+
+    /**
+     * Default size of one mapped window.
+     */
+    public static final int WINDOW_SIZE = 1 << 30;
+
+    static final byte EMPTY_DOCUMENT = 0;
+    static final byte NONEMPTY_DOCUMENT = 1;
+    static final byte EMPTY_OBJECT = 2;
+    static final byte DANGLING_NAME = 3;
+    static final byte NONEMPTY_OBJECT = 4;
+    static final byte EMPTY_ARRAY = 5;
+    static final byte NONEMPTY_ARRAY = 6;
+
+    /**
+     * Powers of ten that are exact as doubles.
+     */
+    static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Source of the bytes, or null when reading a mapped file or an array.
+     */
+    InputStream in;
+
+    /**
+     * Mapped file, or null when reading a stream or an array.
+     */
+    FileChannel channel;
+
+    /**
+     * Position in channel where the mapping ends.
+     */
+    long end;
+
+    /**
+     * Size of one mapped window.
+     */
+    int window;
+
+    /**
+     * Input buffer of the stream or the array being read, or null when
+     * reading a mapped file.
+     */
+    byte[] array;
+
+    /**
+     * Bytes being tokenized. Wraps array, is a buffer read in place, or is
+     * the current mapped window.
+     */
+    ByteBuffer buffer;
+
+    /**
+     * Position of the next unread byte in buffer.
+     */
+    int pos;
+
+    /**
+     * Number of valid bytes in buffer.
+     */
+    int limit;
+
+    /**
+     * Number of bytes before the start of buffer.
+     */
+    long offset;
+
+    /**
+     * Scopes of the open objects and arrays.
+     */
+    byte[] stack;
+
+    /**
+     * Number of scopes in stack.
+     */
+    int depth;
+
+    /**
+     * Token found by peek() but not yet consumed.
+     */
+    JsonToken peeked;
+
+    /**
+     * Must every value be on one line, as in newline delimited JSON.
+     */
+    boolean singleLine;
+
+    /**
+     * Scratch space for decoding strings and numbers.
+     */
+    char[] chars;
+
+    /**
+     * Value of the last NAME or STRING token.
+     */
+    String string;
+
+    /**
+     * Canonical strings of the names read so far, created on the first
+     * name.
+     */
+    StringTable names;
+
+    /**
+     * Canonical strings of the string values read so far, or null when
+     * values are not interned.
+     */
+    StringTable values;
+
+    /**
+     * Value of the last NUMBER token.
+     */
+    double number;
+
+    /**
+     * Value of the last BOOLEAN token.
+     */
+    boolean bool;
+
+    /**
+     * Constructs a reader reading UTF-8 from given stream.
+     *
+     * @param   in  source of the JSON
+     */
+    public JsonReader(InputStream in) {
+        this();
+        this.in = in;
+        this.array = new byte[BUFFER_SIZE];
+        this.buffer = ByteBuffer.wrap(array);
+    }
+
+    /**
+     * Constructs a reader reading UTF-8 from a part of given array.
+     *
+     * The array is tokenized in place without copying, so it must not
+     * change while the reader is used. Offsets in error messages count from
+     * the start of the array.
+     *
+     * @param   bytes   array holding the JSON
+     * @param   offset  position of the first byte to read
+     * @param   length  number of bytes to read
+     */
+    public JsonReader(byte[] bytes, int offset, int length) {
+        this(ByteBuffer.wrap(bytes), offset, length);
+        this.array = bytes;
+    }
+
+    /**
+     * Constructs a reader reading a part of given buffer in place.
+     *
+     * The buffer is read with absolute gets, so its position is not used
+     * and several readers can read the same buffer at once.
+     *
+     * @param   bytes   buffer holding the JSON
+     * @param   offset  position of the first byte to read
+     * @param   length  number of bytes to read
+     */
+    JsonReader(ByteBuffer bytes, int offset, int length) {
+        this();
+
+        if (offset < 0 || length < 0 || length > bytes.limit() - offset) {
+            throw new IndexOutOfBoundsException("Offset " + offset + ", length " + length
+                    + ", buffer length " + bytes.limit());
+        }
+
+        this.buffer = bytes;
+        this.pos = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * Starts reading a new document from another part of the buffer.
+     *
+     * Only for readers reading an array or a buffer in place.
+     *
+     * @param   offset  position of the first byte to read
+     * @param   length  number of bytes to read
+     */
+    void reset(int offset, int length) {
+        pos = offset;
+        limit = offset + length;
+        depth = 1;
+        stack[0] = EMPTY_DOCUMENT;
+        peeked = null;
+    }
+
+    /**
+     * Constructs a reader mapping given file from its current position to
+     * the end.
+     *
+     * @param   channel     file to read
+     * @throws  IOException if the size of the file can't be read
+     */
+    public JsonReader(FileChannel channel) throws IOException {
+        this(channel, WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a reader mapping given file in windows of given size.
+     *
+     * Only one window is referenced at a time. Earlier windows are unmapped
+     * when they are garbage collected.
+     *
+     * @param   channel     file to read
+     * @param   window      size of one mapped window in bytes
+     * @throws  IOException if the size of the file can't be read
+     */
+    public JsonReader(FileChannel channel, int window) throws IOException {
+        this();
+
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window size must be positive.");
+        }
+
+        this.channel = channel;
+        this.window = window;
+        this.offset = channel.position();
+        this.end = channel.size();
+        this.buffer = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Initializes the parsing state.
+     */
+    JsonReader() {
+        this.stack = new byte[32];
+        this.stack[0] = EMPTY_DOCUMENT;
+        this.depth = 1;
+        this.chars = new char[64];
+    }
+
+    /**
+     * Constructs a reader reading characters from given reader.
+     *
+     * @param   in  source of the JSON
+     */
+    public JsonReader(Reader in) {
+        this(new ReaderInputStream(in));
+    }
+
+    /**
+     * Reads more bytes to the buffer.
+     *
+     * @return  were there any bytes left
+     * @throws  IOException if reading fails
+     */
+    boolean fill() throws IOException {
+        if (in == null && channel == null) {
+            return false;
+        }
+
+        offset += limit;
+        pos = 0;
+        limit = 0;
+
+        if (channel != null) {
+            if (offset >= end) {
+                return false;
+            }
+
+            limit = (int) Math.min(window, end - offset);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, limit);
+
+            return true;
+        }
+
+        int count = 0;
+
+        while (count == 0) {
+            count = in.read(array, 0, array.length);
+        }
+
+        if (count < 0) {
+            return false;
+        }
+
+        limit = count;
+
+        return true;
+    }
+
+    /**
+     * Creates an exception telling where the input went wrong.
+     *
+     * @param   message     description of the problem
+     * @return              exception to throw
+     */
+    RuntimeException syntaxError(String message) {
+        return new RuntimeException(message + " at offset " + (offset + pos) + ".");
+    }
+
+    /**
+     * Skips whitespace and returns the next byte without consuming it.
+     *
+     * @return  next byte, or -1 at the end of input
+     * @throws  IOException if reading fails
+     */
+    int peekNonWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+
+            int c = buffer.get(pos) & 0xFF;
+
+            if (c == ' ' || c == '\r' || c == '\t') {
+                pos++;
+            } else if (c == '\n') {
+                if (singleLine && depth > 1) {
+                    throw syntaxError("Unexpected line break");
+                }
+
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of the line after a value, which may only hold
+     * whitespace, and the line break.
+     *
+     * @throws  IOException if reading fails
+     */
+    void endLine() throws IOException {
+        while (true) {
+            int c = peekByte();
+
+            if (c == -1) {
+                return;
+            } else if (c != '\n' && c != ' ' && c != '\r' && c != '\t') {
+                throw syntaxError("Expected a line break");
+            }
+
+            pos++;
+
+            if (c == '\n') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the next byte without consuming it.
+     *
+     * @return  next byte, or -1 at the end of input
+     * @throws  IOException if reading fails
+     */
+    int peekByte() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+
+        return buffer.get(pos) & 0xFF;
+    }
+
+    /**
+     * Consumes and returns the next byte.
+     *
+     * @return  next byte
+     * @throws  IOException if reading fails
+     */
+    int nextByte() throws IOException {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unexpected end of input");
+        }
+
+        return buffer.get(pos++) & 0xFF;
+    }
+
+    /**
+     * Returns the type of the next token without consuming it.
+     *
+     * @return  type of the next token
+     * @throws  IOException if reading fails
+     */
+    public JsonToken peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        byte scope = stack[depth - 1];
+        int c = peekNonWhitespace();
+
+        switch (scope) {
+            case EMPTY_ARRAY:
+                if (c == ']') {
+                    pos++;
+                    return peeked = JsonToken.END_ARRAY;
+                }
+
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_ARRAY:
+                if (c == ']') {
+                    pos++;
+                    return peeked = JsonToken.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+
+                pos++;
+                c = peekNonWhitespace();
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                if (c == '}') {
+                    pos++;
+                    return peeked = JsonToken.END_OBJECT;
+                }
+
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+
+                    pos++;
+                    c = peekNonWhitespace();
+                }
+
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = JsonToken.NAME;
+            case DANGLING_NAME:
+                if (c != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+
+                pos++;
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                c = peekNonWhitespace();
+                break;
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default:
+                if (c == -1) {
+                    return peeked = JsonToken.END_DOCUMENT;
+                }
+        }
+
+        switch (c) {
+            case '{':
+                pos++;
+                return peeked = JsonToken.BEGIN_OBJECT;
+            case '[':
+                pos++;
+                return peeked = JsonToken.BEGIN_ARRAY;
+            case '"':
+                return peeked = JsonToken.STRING;
+            case 't':
+            case 'f':
+                return peeked = JsonToken.BOOLEAN;
+            case 'n':
+                return peeked = JsonToken.NULL;
+            case '-':
+            case '0': case '1': case '2': case '3': case '4':
+            case '5': case '6': case '7': case '8': case '9':
+                return peeked = JsonToken.NUMBER;
+            case -1:
+                throw syntaxError("Unexpected end of input");
+            default:
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Consumes the next token and returns its type.
+     *
+     * Values of NAME, STRING, NUMBER and BOOLEAN tokens can be read with
+     * getString(), getNumber() and getBoolean() afterwards.
+     *
+     * @return  type of the consumed token
+     * @throws  IOException if reading fails
+     */
+    public JsonToken next() throws IOException {
+        JsonToken token = peek();
+        peeked = null;
+
+        switch (token) {
+            case BEGIN_OBJECT:
+                push(EMPTY_OBJECT);
+                break;
+            case BEGIN_ARRAY:
+                push(EMPTY_ARRAY);
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                depth--;
+                break;
+            case NAME:
+                if (names == null) {
+                    names = new StringTable(NAME_TABLE_SIZE);
+                }
+
+                string = readString(names);
+                break;
+            case STRING:
+                string = values != null ? readString(values) : readString();
+                break;
+            case NUMBER:
+                number = readNumber();
+                break;
+            case BOOLEAN:
+                bool = buffer.get(pos) == 't';
+                readLiteral(bool ? "true" : "false");
+                break;
+            case NULL:
+                readLiteral("null");
+                break;
+            default:
+                break;
+        }
+
+        return token;
+    }
+
+    /**
+     * Sets whether string values are interned like names are.
+     *
+     * Worth it when the same few values repeat in many records, such as
+     * enumerations or status codes. Values are then shared between the
+     * records instead of being decoded again for every record.
+     *
+     * @param   intern  intern string values
+     */
+    public void setInternValues(boolean intern) {
+        values = intern ? new StringTable(VALUE_TABLE_SIZE) : null;
+    }
+
+    /**
+     * Returns the value of the last NAME or STRING token.
+     *
+     * @return  string value
+     */
+    public String getString() {
+        return string;
+    }
+
+    /**
+     * Returns the value of the last NUMBER token.
+     *
+     * @return  number value
+     */
+    public double getNumber() {
+        return number;
+    }
+
+    /**
+     * Returns the value of the last BOOLEAN token.
+     *
+     * @return  boolean value
+     */
+    public boolean getBoolean() {
+        return bool;
+    }
+
+    /**
+     * Pushes a new scope to the stack.
+     *
+     * @param   scope   scope to push
+     */
+    void push(byte scope) {
+        if (depth == stack.length) {
+            byte[] bigger = new byte[depth * 2];
+            System.arraycopy(stack, 0, bigger, 0, depth);
+            stack = bigger;
+        }
+
+        stack[depth++] = scope;
+    }
+
+    /**
+     * Appends a character to the scratch space.
+     *
+     * @param   length  number of characters already in scratch space
+     * @param   c       character to append
+     * @return          new number of characters
+     */
+    int append(int length, char c) {
+        if (length == chars.length) {
+            char[] bigger = new char[length * 2];
+            System.arraycopy(chars, 0, bigger, 0, length);
+            chars = bigger;
+        }
+
+        chars[length] = c;
+
+        return length + 1;
+    }
+
+    /**
+     * Consumes given literal or throws an exception.
+     *
+     * @param   literal     expected literal
+     * @throws  IOException if reading fails
+     */
+    void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (nextByte() != literal.charAt(i)) {
+                throw syntaxError("Expected '" + literal + "'");
+            }
+        }
+    }
+
+    /**
+     * Reads a quoted string through given table.
+     *
+     * If the whole string is in the buffer, is short and has no escapes,
+     * its bytes are looked up in the table. A hit returns the canonical
+     * string without decoding; a miss decodes the string and stores it.
+     *
+     * @param   table   table of canonical strings
+     * @return          decoded string
+     * @throws  IOException if reading fails
+     */
+    String readString(StringTable table) throws IOException {
+        int start = pos + 1;
+        int end = Math.min(limit, start + StringTable.MAX_LENGTH + 1);
+        int hash = 0;
+
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+
+            if (b == '"') {
+                String interned = table.get(buffer, start, i, hash);
+
+                if (interned != null) {
+                    pos = i + 1;
+                    return interned;
+                }
+
+                String decoded = readString();
+                table.put(buffer, start, i, hash, decoded);
+
+                return decoded;
+            } else if (b == '\\' || (b >= 0 && b < 0x20)) {
+                break;
+            }
+
+            hash = 31 * hash + b;
+        }
+
+        return readString();
+    }
+
+    /**
+     * Reads a quoted string and decodes its escapes and UTF-8 sequences.
+     *
+     * @return  decoded string
+     * @throws  IOException if reading fails
+     */
+    String readString() throws IOException {
+        pos++;
+        int length = 0;
+
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+
+            int b = buffer.get(pos++);
+
+            if (b == '"') {
+                break;
+            } else if (b == '\\') {
+                length = append(length, readEscape());
+            } else if (b >= 0x20) {
+                length = append(length, (char) b);
+            } else if (b >= 0) {
+                throw syntaxError("Unescaped control character in string");
+            } else {
+                length = readMultiByte(length, b & 0xFF);
+            }
+        }
+
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Decodes the character after a backslash.
+     *
+     * @return  decoded character
+     * @throws  IOException if reading fails
+     */
+    char readEscape() throws IOException {
+        int c = nextByte();
+
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextByte(), 16);
+
+                    if (digit < 0) {
+                        throw syntaxError("Bad unicode escape");
+                    }
+
+                    value = (value << 4) | digit;
+                }
+
+                return (char) value;
+            default:
+                throw syntaxError("Bad escape character");
+        }
+    }
+
+    /**
+     * Decodes a multi-byte UTF-8 sequence to the scratch space.
+     *
+     * @param   length  number of characters already in scratch space
+     * @param   lead    first byte of the sequence
+     * @return          new number of characters
+     * @throws  IOException if reading fails
+     */
+    int readMultiByte(int length, int lead) throws IOException {
+        int continuation;
+        int codePoint;
+
+        if ((lead & 0xE0) == 0xC0) {
+            continuation = 1;
+            codePoint = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            continuation = 2;
+            codePoint = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            continuation = 3;
+            codePoint = lead & 0x07;
+        } else {
+            throw syntaxError("Malformed UTF-8");
+        }
+
+        for (int i = 0; i < continuation; i++) {
+            int b = nextByte();
+
+            if ((b & 0xC0) != 0x80) {
+                throw syntaxError("Malformed UTF-8");
+            }
+
+            codePoint = (codePoint << 6) | (b & 0x3F);
+        }
+
+        if (codePoint >= 0x10000) {
+            length = append(length, Character.highSurrogate(codePoint));
+            return append(length, Character.lowSurrogate(codePoint));
+        }
+
+        return append(length, (char) codePoint);
+    }
+
+    /**
+     * Reads the digits of a number to the scratch space.
+     *
+     * @param   length  number of characters already in scratch space
+     * @return          new number of characters
+     * @throws  IOException if reading fails
+     */
+    int readDigits(int length) throws IOException {
+        int c = peekByte();
+
+        if (c < '0' || c > '9') {
+            throw syntaxError("Expected a digit");
+        }
+
+        while (c >= '0' && c <= '9') {
+            length = append(length, (char) c);
+            pos++;
+            c = peekByte();
+        }
+
+        return length;
+    }
+
+    /**
+     * Reads a number and converts it to double.
+     *
+     * Numbers with at most 15 significant digits and a small exponent are
+     * converted exactly without creating a String. Others are given to
+     * Double.parseDouble().
+     *
+     * @return  value of the number
+     * @throws  IOException if reading fails
+     */
+    double readNumber() throws IOException {
+        int length = 0;
+
+        if (peekByte() == '-') {
+            length = append(length, '-');
+            pos++;
+        }
+
+        if (peekByte() == '0') {
+            length = append(length, '0');
+            pos++;
+        } else {
+            length = readDigits(length);
+        }
+
+        if (peekByte() == '.') {
+            length = append(length, '.');
+            pos++;
+            length = readDigits(length);
+        }
+
+        int c = peekByte();
+
+        if (c == 'e' || c == 'E') {
+            length = append(length, 'e');
+            pos++;
+            c = peekByte();
+
+            if (c == '+' || c == '-') {
+                length = append(length, (char) c);
+                pos++;
+            }
+
+            length = readDigits(length);
+        }
+
+        return toDouble(length);
+    }
+
+    /**
+     * Converts the number in the scratch space to double.
+     *
+     * @param   length  number of characters in scratch space
+     * @return          value of the number
+     */
+    double toDouble(int length) {
+        boolean negative = chars[0] == '-';
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        int i = negative ? 1 : 0;
+
+        for (; i < length; i++) {
+            char c = chars[i];
+
+            if (c == '.') {
+                fraction = true;
+            } else if (c == 'e') {
+                break;
+            } else {
+                if (mantissa != 0 || c != '0') {
+                    digits++;
+                }
+
+                if (digits > 15) {
+                    return Double.parseDouble(new String(chars, 0, length));
+                }
+
+                mantissa = mantissa * 10 + (c - '0');
+
+                if (fraction) {
+                    exponent--;
+                }
+            }
+        }
+
+        if (i < length) {
+            int explicit = 0;
+            boolean negativeExponent = chars[++i] == '-';
+
+            if (chars[i] == '-' || chars[i] == '+') {
+                i++;
+            }
+
+            for (; i < length; i++) {
+                explicit = explicit * 10 + (chars[i] - '0');
+
+                if (explicit > 1000) {
+                    return Double.parseDouble(new String(chars, 0, length));
+                }
+            }
+
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+
+        double value;
+
+        if (mantissa == 0) {
+            value = 0;
+        } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return Double.parseDouble(new String(chars, 0, length));
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Consumes the next token and throws an exception if it is not the
+     * expected one.
+     *
+     * @param   expected    expected token
+     * @throws  IOException if reading fails
+     */
+    void expect(JsonToken expected) throws IOException {
+        JsonToken token = next();
+
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+    }
+
+    /**
+     * Reads the next object and returns it as a JsonFile.
+     *
+     * @param   name    name for the created JsonFile
+     * @return          read JsonFile
+     * @throws  IOException if reading fails
+     */
+    public JsonFile readFile(String name) throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+
+        JsonFile file = new JsonFile(name);
+
+        while (next() == JsonToken.NAME) {
+            file.add(readUnit(string));
+        }
+
+        return file;
+    }
+
+    /**
+     * Reads the next object into given file, reusing its units.
+     *
+     * Meant for reading many similar records one at a time. The units the
+     * file had are refilled position by position when the new value has
+     * the same type, so a record shaped like the previous one allocates no
+     * units, lists or index tables, only the strings that were not
+     * interned. Units taken out of the file earlier must not be kept, as
+     * they may be changed. Frozen units are never reused.
+     *
+     * Subclasses of JsonFile are cleared and filled without reusing their
+     * units. If reading fails, the file holds a part of the record.
+     *
+     * @param   file    file to refill
+     * @return          the same file
+     * @throws  IOException if reading fails
+     */
+    public JsonFile readInto(JsonFile file) throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+
+        if (file.getClass() == JsonFile.class) {
+            readMembers(file.units, file.index);
+        } else {
+            file.clear();
+
+            while (next() == JsonToken.NAME) {
+                file.add(readUnit(string));
+            }
+        }
+
+        return file;
+    }
+
+    /**
+     * Reads the members of an object after its opening brace into given
+     * list, reusing the units already in it.
+     *
+     * @param   units   list to refill
+     * @param   index   index of the list
+     * @throws  IOException if reading fails
+     */
+    void readMembers(ArrayList<JsonUnit> units, KeyIndex index) throws IOException {
+        int count = 0;
+        int old = units.size();
+        index.clear();
+
+        while (next() == JsonToken.NAME) {
+            String key = string;
+            JsonUnit unit = readUnit(key, count < old ? units.get(count) : null);
+
+            if (index.put(key, unit) != null) {
+                throw new RuntimeException("Can't add new unit with already existing key.");
+            }
+
+            if (count < units.size()) {
+                units.set(count, unit);
+            } else {
+                units.add(unit);
+            }
+
+            count++;
+        }
+
+        for (int i = units.size() - 1; i >= count; i--) {
+            units.remove(i);
+        }
+    }
+
+    /**
+     * Reads the next value and returns it as an unit with given key.
+     *
+     * Objects become ObjectUnits, arrays ArrayUnits and nulls StringUnits
+     * without a value.
+     *
+     * @param   key     key for the unit
+     * @return          read unit
+     * @throws  IOException if reading fails
+     */
+    public JsonUnit readUnit(String key) throws IOException {
+        return readUnit(key, null);
+    }
+
+    /**
+     * Reads the next value, refilling given unit if it has the right type.
+     *
+     * @param   key     key for the unit
+     * @param   reuse   unit to refill, or null
+     * @return          read unit
+     * @throws  IOException if reading fails
+     */
+    JsonUnit readUnit(String key, JsonUnit reuse) throws IOException {
+        Class<?> type = reuse == null ? null : reuse.getClass();
+
+        switch (next()) {
+            case BEGIN_OBJECT:
+                if (type == ObjectUnit.class && ((ObjectUnit) reuse).values != null) {
+                    ObjectUnit refilled = (ObjectUnit) reuse;
+                    rekey(refilled.key, key, refilled);
+                    readMembers(refilled.values, refilled.index);
+
+                    return refilled;
+                }
+
+                ObjectUnit object = new ObjectUnit(key, new ArrayList<JsonUnit>());
+
+                while (next() == JsonToken.NAME) {
+                    object.add(readUnit(string));
+                }
+
+                return object;
+            case BEGIN_ARRAY:
+                return readArray(key, reuse);
+            case STRING:
+                if (type == StringUnit.class) {
+                    rekey(((StringUnit) reuse).key, key, reuse);
+                    ((StringUnit) reuse).value = string;
+
+                    return reuse;
+                }
+
+                return new StringUnit(key, string);
+            case NUMBER:
+                if (type == NumberUnit.class) {
+                    rekey(((NumberUnit) reuse).key, key, reuse);
+                    ((NumberUnit) reuse).value = number;
+
+                    return reuse;
+                }
+
+                return new NumberUnit(key, number);
+            case BOOLEAN:
+                if (type == BooleanUnit.class) {
+                    rekey(((BooleanUnit) reuse).key, key, reuse);
+                    ((BooleanUnit) reuse).value = bool;
+
+                    return reuse;
+                }
+
+                return new BooleanUnit(key, bool);
+            case NULL:
+                if (type == StringUnit.class) {
+                    rekey(((StringUnit) reuse).key, key, reuse);
+                    ((StringUnit) reuse).value = null;
+
+                    return reuse;
+                }
+
+                return new StringUnit(key);
+            default:
+                throw syntaxError("Expected a value");
+        }
+    }
+
+    /**
+     * Gives a reused unit a new key, unless it already has it. Names are
+     * interned, so the key of a similar record is usually the same string.
+     *
+     * @param   old     key of the unit
+     * @param   key     new key
+     * @param   unit    reused unit
+     */
+    static void rekey(String old, String key, JsonUnit unit) {
+        if (old == key || old.equals(key)) {
+            return;
+        }
+
+        if (unit instanceof StringUnit) {
+            ((StringUnit) unit).setKey(key);
+        } else if (unit instanceof NumberUnit) {
+            ((NumberUnit) unit).setKey(key);
+        } else if (unit instanceof BooleanUnit) {
+            ((BooleanUnit) unit).setKey(key);
+        } else if (unit instanceof ObjectUnit) {
+            ((ObjectUnit) unit).setKey(key);
+        } else if (unit instanceof ArrayUnit) {
+            ((ArrayUnit<?>) unit).setKey(key);
+        } else if (unit instanceof DoubleArrayUnit) {
+            ((DoubleArrayUnit) unit).setKey(key);
+        } else if (unit instanceof BooleanArrayUnit) {
+            ((BooleanArrayUnit) unit).setKey(key);
+        }
+    }
+
+    /**
+     * Reads the rest of an array after its opening bracket.
+     *
+     * Arrays of only numbers become DoubleArrayUnits and arrays of only
+     * booleans BooleanArrayUnits, so their values are never boxed. Other
+     * arrays become ArrayUnits, where strings, numbers and booleans are
+     * stored as String, Double and Boolean and objects as JsonFiles named
+     * after the key.
+     *
+     * @param   key     key for the unit
+     * @param   reuse   unit to refill if it has the right type, or null
+     * @return          read unit
+     * @throws  IOException if reading fails
+     */
+    JsonUnit readArray(String key, JsonUnit reuse) throws IOException {
+        Class<?> type = reuse == null ? null : reuse.getClass();
+        ArrayList<Object> values;
+        JsonToken token = next();
+
+        if (token == JsonToken.NUMBER) {
+            DoubleArrayUnit numbers;
+
+            if (type == DoubleArrayUnit.class) {
+                numbers = (DoubleArrayUnit) reuse;
+                rekey(numbers.key, key, numbers);
+                numbers.clear();
+            } else {
+                numbers = new DoubleArrayUnit(key);
+            }
+
+            while (token == JsonToken.NUMBER) {
+                numbers.add(number);
+                token = next();
+            }
+
+            if (token == JsonToken.END_ARRAY) {
+                return numbers;
+            }
+
+            values = new ArrayList<>(numbers.size() * 2);
+
+            for (int i = 0; i < numbers.size(); i++) {
+                values.add(numbers.get(i));
+            }
+
+            reuse = null;
+        } else if (token == JsonToken.BOOLEAN) {
+            BooleanArrayUnit booleans;
+
+            if (type == BooleanArrayUnit.class) {
+                booleans = (BooleanArrayUnit) reuse;
+                rekey(booleans.key, key, booleans);
+                booleans.clear();
+            } else {
+                booleans = new BooleanArrayUnit(key);
+            }
+
+            while (token == JsonToken.BOOLEAN) {
+                booleans.add(bool);
+                token = next();
+            }
+
+            if (token == JsonToken.END_ARRAY) {
+                return booleans;
+            }
+
+            values = new ArrayList<>(booleans.size() * 2);
+
+            for (int i = 0; i < booleans.size(); i++) {
+                values.add(booleans.get(i));
+            }
+
+            reuse = null;
+        } else if (type == ArrayUnit.class && ((ArrayUnit<?>) reuse).values instanceof ArrayList) {
+            @SuppressWarnings("unchecked")
+            ArrayList<Object> old = (ArrayList<Object>) ((ArrayUnit<?>) reuse).values;
+            values = old;
+        } else {
+            values = new ArrayList<>();
+            reuse = null;
+        }
+
+        // A reused list is overwritten position by position, so the
+        // JsonFiles in it can be refilled too.
+        int old = reuse == null ? 0 : values.size();
+        int count = 0;
+
+        for (; token != JsonToken.END_ARRAY; token = next()) {
+            Object value;
+
+            switch (token) {
+                case STRING:
+                    value = string;
+                    break;
+                case NUMBER:
+                    value = number;
+                    break;
+                case BOOLEAN:
+                    value = bool;
+                    break;
+                case NULL:
+                    value = null;
+                    break;
+                case BEGIN_OBJECT:
+                    Object previous = count < old ? values.get(count) : null;
+
+                    if (previous != null && previous.getClass() == JsonFile.class) {
+                        JsonFile file = (JsonFile) previous;
+                        file.name = key;
+                        readMembers(file.units, file.index);
+                        value = file;
+                    } else {
+                        JsonFile file = new JsonFile(key);
+
+                        while (next() == JsonToken.NAME) {
+                            file.add(readUnit(string));
+                        }
+
+                        value = file;
+                    }
+
+                    break;
+                default:
+                    throw syntaxError("Nested arrays are not supported");
+            }
+
+            if (count < old) {
+                values.set(count, value);
+            } else {
+                values.add(value);
+            }
+
+            count++;
+        }
+
+        if (reuse != null) {
+            for (int i = values.size() - 1; i >= count; i--) {
+                values.remove(i);
+            }
+
+            rekey(((ArrayUnit<?>) reuse).key, key, reuse);
+
+            return reuse;
+        }
+
+        return new ArrayUnit<Object>(key, values);
+    }
+
+    /**
+     * Closes the underlying stream or file.
+     *
+     * @throws  IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+
+        if (channel != null) {
+            channel.close();
+        } else if (in != null) {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package fi.esupponen.jsonparser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Finds where JSON values start and end without decoding them.
+ *
+ * The scan only follows the structure: strings are skipped to their closing
+ * quote and brackets are counted, but nothing else is checked. Values found
+ * this way are fully validated later when JsonReader decodes them. All the
+ * methods are static and read the buffer with absolute gets, so threads
+ * can scan the same buffer at once.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+final class JsonScanner {
+
+    private JsonScanner() {
+    }
+
+    /**
+     * Creates an exception telling where the scan went wrong.
+     *
+     * @param   message     description of the problem
+     * @param   pos         position of the problem
+     * @return              exception to throw
+     */
+    static RuntimeException syntaxError(String message, int pos) {
+        return new RuntimeException(message + " at offset " + pos + ".");
+    }
+
+    /**
+     * Skips whitespace.
+     *
+     * @param   bytes   buffer to scan
+     * @param   pos     position to start from
+     * @param   end     end of the part to scan
+     * @return          position of the first other byte, or end
+     */
+    static int skipWhitespace(ByteBuffer bytes, int pos, int end) {
+        while (pos < end) {
+            byte c = bytes.get(pos);
+
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                break;
+            }
+
+            pos++;
+        }
+
+        return pos;
+    }
+
+    /**
+     * Skips a string.
+     *
+     * @param   bytes   buffer to scan
+     * @param   pos     position of the opening quote
+     * @param   end     end of the part to scan
+     * @return          position after the closing quote
+     */
+    static int skipString(ByteBuffer bytes, int pos, int end) {
+        for (int i = pos + 1; i < end; i++) {
+            byte c = bytes.get(i);
+
+            if (c == '"') {
+                return i + 1;
+            } else if (c == '\\') {
+                i++;
+            }
+        }
+
+        throw syntaxError("Unterminated string", pos);
+    }
+
+    /**
+     * Skips a value of any type.
+     *
+     * @param   bytes   buffer to scan
+     * @param   pos     position of the first byte of the value
+     * @param   end     end of the part to scan
+     * @return          position after the value
+     */
+    static int skipValue(ByteBuffer bytes, int pos, int end) {
+        if (pos == end) {
+            throw syntaxError("Expected a value", pos);
+        }
+
+        byte c = bytes.get(pos);
+
+        if (c == '"') {
+            return skipString(bytes, pos, end);
+        }
+
+        if (c == '{' || c == '[') {
+            int depth = 0;
+
+            for (int i = pos; i < end; i++) {
+                c = bytes.get(i);
+
+                if (c == '"') {
+                    i = skipString(bytes, i, end) - 1;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (--depth == 0) {
+                        return i + 1;
+                    }
+                }
+            }
+
+            throw syntaxError("Unterminated " + (bytes.get(pos) == '{' ? "object" : "array"), pos);
+        }
+
+        int i = pos;
+
+        while (i < end) {
+            c = bytes.get(i);
+
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                break;
+            }
+
+            i++;
+        }
+
+        if (i == pos) {
+            throw syntaxError("Expected a value", pos);
+        }
+
+        return i;
+    }
+}
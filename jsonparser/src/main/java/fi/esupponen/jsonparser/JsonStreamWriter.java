@@ -0,0 +1,447 @@
+package fi.esupponen.jsonparser;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Writer that writes JSON one event at a time without building a tree.
+ *
+ * Values are encoded to UTF-8 right away and written to the stream or
+ * channel in large blocks, so memory use depends only on the nesting depth
+ * and the keys of the open objects. Calls in the wrong order, like a value
+ * without a name inside an object or an endArray() closing an object,
+ * throw a runtime exception, and so do duplicate keys. Existing units can
+ * be written in the middle of the events with unit(), and the layout is
+ * the same as when the tree is written with the same style.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class JsonStreamWriter implements Closeable, Flushable {
+
+    /**
+     * Scope of an array holding objects, each written on its own line.
+     */
+    static final byte NONEMPTY_LINE_ARRAY = 7;
+
+    /**
+     * Output the bytes are encoded to.
+     */
+    Utf8Output out;
+
+    /**
+     * Layout to use.
+     */
+    JsonStyle style;
+
+    /**
+     * Scopes of the open objects and arrays, using the scopes of JsonReader.
+     */
+    byte[] stack;
+
+    /**
+     * Number of scopes in stack.
+     */
+    int depth;
+
+    /**
+     * Keys used so far in the open objects, indexed like stack. Small sets
+     * are cleared and reused when the next object opens at the same depth,
+     * so writing many small objects allocates nothing.
+     */
+    ArrayList<HashSet<String>> keys;
+
+    /**
+     * Constructs a writer writing pretty printed JSON to given stream.
+     *
+     * @param   stream  stream to write to
+     */
+    public JsonStreamWriter(OutputStream stream) {
+        this(stream, JsonStyle.PRETTY);
+    }
+
+    /**
+     * Constructs a writer writing to given stream using given style.
+     *
+     * @param   stream  stream to write to
+     * @param   style   layout to use
+     */
+    public JsonStreamWriter(OutputStream stream, JsonStyle style) {
+        this(new Utf8Output(stream), style);
+    }
+
+    /**
+     * Constructs a writer writing to given channel using given style.
+     *
+     * @param   channel     channel to write to
+     * @param   style       layout to use
+     */
+    public JsonStreamWriter(WritableByteChannel channel, JsonStyle style) {
+        this(new Utf8Output(channel), style);
+    }
+
+    /**
+     * Constructs a writer writing to given output.
+     *
+     * @param   out     output to write to
+     * @param   style   layout to use
+     */
+    JsonStreamWriter(Utf8Output out, JsonStyle style) {
+        this.out = out;
+        this.style = style;
+        this.stack = new byte[32];
+        this.stack[0] = JsonReader.EMPTY_DOCUMENT;
+        this.depth = 1;
+        this.keys = new ArrayList<>();
+    }
+
+    /**
+     * Opens a new scope.
+     *
+     * @param   scope   scope to open
+     */
+    void push(byte scope) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+
+        stack[depth++] = scope;
+    }
+
+    /**
+     * Prepares for a value in the current scope.
+     *
+     * Writes the separator and the line break before the value and marks
+     * the scope as having a value.
+     *
+     * @param   object  is the value an object
+     * @throws  IOException if writing fails
+     */
+    void beforeValue(boolean object) throws IOException {
+        switch (stack[depth - 1]) {
+            case JsonReader.EMPTY_DOCUMENT:
+                stack[depth - 1] = JsonReader.NONEMPTY_DOCUMENT;
+                break;
+            case JsonReader.DANGLING_NAME:
+                stack[depth - 1] = JsonReader.NONEMPTY_OBJECT;
+                break;
+            case JsonReader.EMPTY_ARRAY:
+                if (object && style.multiline) {
+                    stack[depth - 1] = NONEMPTY_LINE_ARRAY;
+                    style.newline(out, depth - 1);
+                } else {
+                    stack[depth - 1] = JsonReader.NONEMPTY_ARRAY;
+                }
+
+                break;
+            case JsonReader.NONEMPTY_ARRAY:
+                out.append(style.inlineSeparator);
+                break;
+            case NONEMPTY_LINE_ARRAY:
+                out.append(style.separator);
+                style.newline(out, depth - 1);
+                break;
+            case JsonReader.NONEMPTY_DOCUMENT:
+                throw new RuntimeException("The document already has a value.");
+            default:
+                throw new RuntimeException("Expected a name.");
+        }
+    }
+
+    /**
+     * Ends the document with a line break if the value was top-level.
+     *
+     * @throws  IOException if writing fails
+     */
+    void afterValue() throws IOException {
+        if (depth == 1 && style.multiline) {
+            out.append('\n');
+        }
+    }
+
+    /**
+     * Starts a new member of the current object.
+     *
+     * Checks the key, writes the separator and the line break, and leaves
+     * the object waiting for the value.
+     *
+     * @param   key     key of the member
+     * @throws  IOException if writing fails
+     */
+    void beginMember(String key) throws IOException {
+        byte scope = stack[depth - 1];
+
+        if (scope == JsonReader.NONEMPTY_OBJECT) {
+            out.append(style.separator);
+        } else if (scope == JsonReader.DANGLING_NAME) {
+            throw new RuntimeException("Expected a value for the previous name.");
+        } else if (scope != JsonReader.EMPTY_OBJECT) {
+            throw new RuntimeException("Names can only be written inside an object.");
+        }
+
+        if (key == null) {
+            throw new RuntimeException("Key can't be null.");
+        }
+
+        if (!keys.get(depth - 1).add(key)) {
+            throw new RuntimeException("Can't add new unit with already existing key.");
+        }
+
+        stack[depth - 1] = JsonReader.DANGLING_NAME;
+        style.newline(out, depth - 1);
+    }
+
+    /**
+     * Opens a new object.
+     *
+     * @return  this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter beginObject() throws IOException {
+        beforeValue(true);
+        out.append('{');
+        push(JsonReader.EMPTY_OBJECT);
+
+        while (keys.size() < depth) {
+            keys.add(null);
+        }
+
+        HashSet<String> used = keys.get(depth - 1);
+
+        if (used == null || used.size() > 64) {
+            // Clearing a large set would touch its whole table every time.
+            keys.set(depth - 1, new HashSet<String>());
+        } else {
+            used.clear();
+        }
+
+        return this;
+    }
+
+    /**
+     * Closes the current object.
+     *
+     * @return  this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter endObject() throws IOException {
+        byte scope = stack[depth - 1];
+
+        if (scope == JsonReader.DANGLING_NAME) {
+            throw new RuntimeException("Expected a value for the previous name.");
+        } else if (scope != JsonReader.EMPTY_OBJECT && scope != JsonReader.NONEMPTY_OBJECT) {
+            throw new RuntimeException("No object to end.");
+        }
+
+        depth--;
+
+        if (scope == JsonReader.NONEMPTY_OBJECT) {
+            style.newline(out, depth - 1);
+        }
+
+        out.append('}');
+        afterValue();
+
+        return this;
+    }
+
+    /**
+     * Opens a new array.
+     *
+     * If the first value of the array is an object and the style is
+     * multiline, every value of the array is written on its own line.
+     *
+     * @return  this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter beginArray() throws IOException {
+        beforeValue(false);
+        out.append('[');
+        push(JsonReader.EMPTY_ARRAY);
+
+        return this;
+    }
+
+    /**
+     * Closes the current array.
+     *
+     * @return  this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter endArray() throws IOException {
+        byte scope = stack[depth - 1];
+
+        if (scope != JsonReader.EMPTY_ARRAY && scope != JsonReader.NONEMPTY_ARRAY
+                && scope != NONEMPTY_LINE_ARRAY) {
+            throw new RuntimeException("No array to end.");
+        }
+
+        depth--;
+
+        if (scope == NONEMPTY_LINE_ARRAY) {
+            style.newline(out, depth - 1);
+        }
+
+        out.append(']');
+        afterValue();
+
+        return this;
+    }
+
+    /**
+     * Writes the key of the next member of the current object.
+     *
+     * @param   key     key of the member
+     * @return          this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter name(String key) throws IOException {
+        beginMember(key);
+        style.name(out, key);
+
+        return this;
+    }
+
+    /**
+     * Writes a string, or null if value is null.
+     *
+     * @param   value   value to write
+     * @return          this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+
+        beforeValue(false);
+        StringEscaper.write(out, value);
+        afterValue();
+
+        return this;
+    }
+
+    /**
+     * Writes a boolean.
+     *
+     * @param   value   value to write
+     * @return          this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter value(boolean value) throws IOException {
+        beforeValue(false);
+        out.append(value ? "true" : "false");
+        afterValue();
+
+        return this;
+    }
+
+    /**
+     * Writes a double. NaN and infinities are written as null.
+     *
+     * @param   value   value to write
+     * @return          this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter value(double value) throws IOException {
+        beforeValue(false);
+        NumberWriter.write(out, value);
+        afterValue();
+
+        return this;
+    }
+
+    /**
+     * Writes a long.
+     *
+     * @param   value   value to write
+     * @return          this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter value(long value) throws IOException {
+        beforeValue(false);
+        NumberWriter.write(out, value);
+        afterValue();
+
+        return this;
+    }
+
+    /**
+     * Writes null.
+     *
+     * @return  this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter nullValue() throws IOException {
+        beforeValue(false);
+        out.append("null");
+        afterValue();
+
+        return this;
+    }
+
+    /**
+     * Writes an existing unit.
+     *
+     * A unit with a key is written as a member of the current object. A
+     * JsonFile has no key and is written as a value, so it can be an array
+     * element, follow name() or be the whole document.
+     *
+     * @param   unit    unit to write
+     * @return          this writer
+     * @throws  IOException if writing fails
+     */
+    public JsonStreamWriter unit(JsonUnit unit) throws IOException {
+        String key = unit.getKey();
+
+        if (key != null) {
+            beginMember(key);
+            stack[depth - 1] = JsonReader.NONEMPTY_OBJECT;
+        } else {
+            beforeValue(unit instanceof JsonFile);
+        }
+
+        unit.writeTo(out, style, depth - 1);
+        afterValue();
+
+        return this;
+    }
+
+    /**
+     * Writes everything buffered to the stream or channel.
+     *
+     * @throws  IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Flushes and closes the stream or channel.
+     *
+     * @throws  IOException if writing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.flush();
+        } finally {
+            if (out.stream != null) {
+                out.stream.close();
+            } else {
+                out.channel.close();
+            }
+        }
+
+        if (depth != 1 || stack[0] != JsonReader.NONEMPTY_DOCUMENT) {
+            throw new RuntimeException("Incomplete document.");
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package fi.esupponen.jsonparser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout used when units are written out.
+ *
+ * MINIFIED writes no whitespace at all. pretty() writes every object member
+ * and every object inside an array on its own line, indented by given
+ * number of spaces per level. Indentation is appended as a slice of one
+ * precomputed string, so writing it allocates nothing.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public final class JsonStyle {
+
+    /**
+     * No whitespace between tokens.
+     */
+    public static final JsonStyle MINIFIED = new JsonStyle(false, 0, ":", ",", ",");
+
+    /**
+     * Pretty printing with two spaces per level. Used by parse().
+     */
+    public static final JsonStyle PRETTY = new JsonStyle(true, 2, ": ", ",", ", ");
+
+    /**
+     * Everything on one line with a space after colons and commas. Used by
+     * toString().
+     */
+    static final JsonStyle INLINE = new JsonStyle(false, 0, ": ", ", ", ", ");
+
+    /**
+     * Does the style break lines.
+     */
+    final boolean multiline;
+
+    /**
+     * Number of spaces per level.
+     */
+    final int indent;
+
+    /**
+     * Written between a key and its value.
+     */
+    final String nameSeparator;
+
+    /**
+     * Written between object members and between objects in an array.
+     */
+    final String separator;
+
+    /**
+     * Written between the values of an array that stays on one line.
+     */
+    final String inlineSeparator;
+
+    /**
+     * A line break followed by spaces, sliced for every depth.
+     */
+    volatile String newlines;
+
+    /**
+     * Constructs a style.
+     *
+     * @param   multiline       does the style break lines
+     * @param   indent          number of spaces per level
+     * @param   nameSeparator   written between a key and its value
+     * @param   separator       written between members
+     * @param   inlineSeparator written between values on one line
+     */
+    JsonStyle(boolean multiline, int indent, String nameSeparator, String separator, String inlineSeparator) {
+        this.multiline = multiline;
+        this.indent = indent;
+        this.nameSeparator = nameSeparator;
+        this.separator = separator;
+        this.inlineSeparator = inlineSeparator;
+        this.newlines = spaces(16);
+    }
+
+    /**
+     * Returns a pretty printing style with given indentation.
+     *
+     * @param   indent  number of spaces per level
+     * @return          style
+     */
+    public static JsonStyle pretty(int indent) {
+        if (indent < 0) {
+            throw new IllegalArgumentException("Indent can't be negative.");
+        }
+
+        return indent == 2 ? PRETTY : new JsonStyle(true, indent, ": ", ",", ", ");
+    }
+
+    /**
+     * Does the style break lines.
+     *
+     * @return  is multiline
+     */
+    public boolean isMultiline() {
+        return multiline;
+    }
+
+    /**
+     * Returns a line break followed by indentation for given depth.
+     *
+     * @param   depth   deepest level the string must cover
+     * @return          line break and spaces
+     */
+    String spaces(int depth) {
+        StringBuilder builder = new StringBuilder(1 + depth * indent);
+        builder.append('\n');
+
+        for (int i = 0; i < depth * indent; i++) {
+            builder.append(' ');
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Starts a new line indented for given depth.
+     *
+     * Does nothing if the style is not multiline.
+     *
+     * @param   out     output to append to
+     * @param   depth   level of the new line
+     * @throws  IOException if appending fails
+     */
+    void newline(Appendable out, int depth) throws IOException {
+        if (multiline) {
+            String current = newlines;
+            int length = 1 + depth * indent;
+
+            if (length > current.length()) {
+                current = spaces(depth * 2);
+                newlines = current;
+            }
+
+            out.append(current, 0, length);
+        }
+    }
+
+    /**
+     * Appends a quoted and escaped key and the name separator.
+     *
+     * @param   out     output to append to
+     * @param   key     key to append
+     * @throws  IOException if appending fails
+     */
+    void name(Appendable out, String key) throws IOException {
+        StringEscaper.write(out, key);
+        out.append(nameSeparator);
+    }
+
+    /**
+     * Appends a key and the name separator, using an encoding made by
+     * encodeName() for byte outputs.
+     *
+     * Byte outputs get the encoded bytes copied as they are, and the key
+     * is encoded first if it has not been yet. Other outputs get the key
+     * as characters.
+     *
+     * @param   out     output to append to
+     * @param   key     key to append
+     * @param   encoded key encoded by encodeName(), or null
+     * @return          key encoded by encodeName(), or null if not needed
+     * @throws  IOException if appending fails
+     */
+    byte[] name(Appendable out, String key, byte[] encoded) throws IOException {
+        if (key != null && out instanceof Utf8Output) {
+            if (encoded == null) {
+                encoded = encodeName(key);
+            }
+
+            ((Utf8Output) out).write(encoded, 0, encoded.length);
+            out.append(nameSeparator);
+        } else {
+            name(out, key);
+        }
+
+        return encoded;
+    }
+
+    /**
+     * Encodes a key in quotes and escaped as UTF-8.
+     *
+     * Units encode their key the first time they are written to bytes, so
+     * writing them again only copies the bytes.
+     *
+     * @param   key     key to encode
+     * @return          encoded key, or null if key is null
+     */
+    static byte[] encodeName(String key) {
+        if (key == null) {
+            return null;
+        }
+
+        int length = key.length();
+        byte[] bytes = new byte[length + 2];
+        bytes[0] = '"';
+
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+
+            if (c >= 0x80 || StringEscaper.ESCAPES[c] != 0) {
+                StringBuilder builder = new StringBuilder(length + 8);
+
+                try {
+                    StringEscaper.write(builder, key);
+                } catch (IOException e) {
+                    // StringBuilder never throws IOException.
+                    throw new UncheckedIOException(e);
+                }
+
+                return builder.toString().getBytes(StandardCharsets.UTF_8);
+            }
+
+            bytes[i + 1] = (byte) c;
+        }
+
+        bytes[length + 1] = '"';
+
+        return bytes;
+    }
+}
@@ -0,0 +1,20 @@
+package fi.esupponen.jsonparser;
+
+/**
+ * Tokens returned by JsonReader.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public enum JsonToken {
+    BEGIN_OBJECT,
+    END_OBJECT,
+    BEGIN_ARRAY,
+    END_ARRAY,
+    NAME,
+    STRING,
+    NUMBER,
+    BOOLEAN,
+    NULL,
+    END_DOCUMENT
+}
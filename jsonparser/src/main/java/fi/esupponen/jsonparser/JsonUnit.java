@@ -1,12 +1,87 @@
 package fi.esupponen.jsonparser;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 
 /**
  * @author      Essi Supponen [essi.supponen@cs.tamk.fi]
- * @version     2018-1128
+ * @version     2026-1018
  * @since       2018-1120
  */
 public interface JsonUnit {
-    public void jsonPrint(String leadingSpaces, PrintWriter writer);
     public String getKey();
-}
\ No newline at end of file
+
+    /**
+     * Appends the expression of this unit to given output using given style.
+     *
+     * Keyed units append their key first. Lines inside the unit are
+     * indented one level deeper than depth, and the closing bracket is
+     * indented for depth.
+     *
+     * @param   out     output to append to
+     * @param   style   layout to use
+     * @param   depth   nesting level of the unit
+     * @throws  IOException if appending fails
+     */
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException;
+
+    /**
+     * Writes the expression of this unit to given json-file.
+     *
+     * Prints leadingSpaces first and then the unit pretty printed with
+     * two spaces per level.
+     *
+     * @param   leadingSpaces   indentation
+     * @param   writer          json-file
+     */
+    public default void jsonPrint(String leadingSpaces, PrintWriter writer) {
+        writer.print(leadingSpaces);
+
+        try {
+            writeTo(writer, JsonStyle.PRETTY, leadingSpaces.length() / 2);
+        } catch (IOException e) {
+            // PrintWriter never throws IOException.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends the string representation of this unit to given output.
+     *
+     * Produces the same text as toString() without creating intermediate
+     * strings.
+     *
+     * @param   out     output to append to
+     * @throws  IOException if appending fails
+     */
+    public default void writeTo(Appendable out) throws IOException {
+        writeTo(out, JsonStyle.INLINE, 0);
+    }
+
+    /**
+     * Writes this unit through given streaming writer.
+     *
+     * Units with a key are written as members of the writer's current
+     * object, a JsonFile is written as a value.
+     *
+     * @param   writer  writer to write to
+     * @throws  IOException if writing fails
+     */
+    public default void writeTo(JsonStreamWriter writer) throws IOException {
+        writer.unit(this);
+    }
+
+    /**
+     * Appends the string representation of this unit to given builder.
+     *
+     * @param   builder     builder to append to
+     */
+    public default void writeTo(StringBuilder builder) {
+        try {
+            writeTo(builder, JsonStyle.INLINE, 0);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException.
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package fi.esupponen.jsonparser;
+
+import java.util.Arrays;
+
+/**
+ * Units by their keys, for JsonFile and ObjectUnit.
+ *
+ * An open addressing table with the keys and the units in two arrays, so
+ * adding a key allocates nothing unless the table has to grow. clear()
+ * keeps the arrays, so a file that is cleared and filled again with
+ * similar units reuses the same table every time.
+ *
+ * Units remember the index they were last put in, so renaming an unit
+ * moves it to its new key. An unit put in several indexes at once can't
+ * be renamed, because only one of them would follow.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+final class KeyIndex {
+
+    /**
+     * Owner of units put in more than one index.
+     */
+    static final KeyIndex SHARED = new KeyIndex(0);
+
+    /**
+     * Keys, or null for free slots.
+     */
+    String[] keys;
+
+    /**
+     * Units of the keys.
+     */
+    JsonUnit[] units;
+
+    /**
+     * Number of keys.
+     */
+    int size;
+
+    /**
+     * Constructs an index with room for given number of keys.
+     *
+     * @param   expected    expected number of keys
+     */
+    KeyIndex(int expected) {
+        int capacity = 8;
+
+        while (capacity * 3 / 4 < expected) {
+            capacity *= 2;
+        }
+
+        this.keys = new String[capacity];
+        this.units = new JsonUnit[capacity];
+    }
+
+    /**
+     * Returns the slot of given key, or the free slot where it would go.
+     *
+     * @param   key     key to find
+     * @return          slot
+     */
+    int slot(String key) {
+        int mask = keys.length - 1;
+        int h = key.hashCode();
+        int slot = (h ^ (h >>> 16)) & mask;
+
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    boolean containsKey(String key) {
+        return key != null && size > 0 && keys[slot(key)] != null;
+    }
+
+    JsonUnit get(String key) {
+        return key == null || size == 0 ? null : units[slot(key)];
+    }
+
+    /**
+     * Sets the unit of given key.
+     *
+     * @param   key     key of the unit
+     * @param   unit    unit to set
+     * @return          unit the key had before, or null
+     */
+    JsonUnit put(String key, JsonUnit unit) {
+        if (key == null) {
+            throw new RuntimeException("Units must have a key.");
+        }
+
+        int slot = slot(key);
+        JsonUnit old = units[slot];
+        units[slot] = unit;
+        own(unit);
+
+        if (keys[slot] == null) {
+            keys[slot] = key;
+
+            if (++size > keys.length * 3 / 4) {
+                grow();
+            }
+        }
+
+        return old;
+    }
+
+    /**
+     * Makes this index the owner of given unit.
+     *
+     * @param   unit    unit put in this index
+     */
+    void own(JsonUnit unit) {
+        if (unit instanceof StringUnit) {
+            ((StringUnit) unit).owner = owner(((StringUnit) unit).owner, unit);
+        } else if (unit instanceof NumberUnit) {
+            ((NumberUnit) unit).owner = owner(((NumberUnit) unit).owner, unit);
+        } else if (unit instanceof BooleanUnit) {
+            ((BooleanUnit) unit).owner = owner(((BooleanUnit) unit).owner, unit);
+        } else if (unit instanceof ObjectUnit) {
+            ((ObjectUnit) unit).owner = owner(((ObjectUnit) unit).owner, unit);
+        } else if (unit instanceof ArrayUnit) {
+            ((ArrayUnit<?>) unit).owner = owner(((ArrayUnit<?>) unit).owner, unit);
+        } else if (unit instanceof DoubleArrayUnit) {
+            ((DoubleArrayUnit) unit).owner = owner(((DoubleArrayUnit) unit).owner, unit);
+        } else if (unit instanceof BooleanArrayUnit) {
+            ((BooleanArrayUnit) unit).owner = owner(((BooleanArrayUnit) unit).owner, unit);
+        } else if (unit instanceof LongArrayUnit) {
+            ((LongArrayUnit) unit).owner = owner(((LongArrayUnit) unit).owner, unit);
+        }
+    }
+
+    /**
+     * Returns the new owner of an unit put in this index.
+     *
+     * @param   current     current owner of the unit, or null
+     * @param   unit        unit put in this index
+     * @return              new owner
+     */
+    KeyIndex owner(KeyIndex current, JsonUnit unit) {
+        if (current == null || current == this || !current.holds(unit)) {
+            return this;
+        }
+
+        return SHARED;
+    }
+
+    /**
+     * Does this index still hold given unit by its current key.
+     *
+     * Indexes are not told when an unit is removed or cleared from them, so
+     * an owner is only trusted if it still holds the unit.
+     *
+     * @param   unit    unit to find
+     * @return          is the unit in this index
+     */
+    boolean holds(JsonUnit unit) {
+        return this == SHARED || get(unit.getKey()) == unit;
+    }
+
+    /**
+     * Moves an unit that is being renamed to its new key in its owner.
+     *
+     * @param   owner   owner of the unit, or null
+     * @param   unit    unit being renamed
+     * @param   old     current key of the unit
+     * @param   key     new key of the unit
+     */
+    static void rename(KeyIndex owner, JsonUnit unit, String old, String key) {
+        if (owner == null || (key != null && key.equals(old)) || !owner.holds(unit)) {
+            return;
+        }
+
+        if (owner == SHARED) {
+            throw new RuntimeException("Can't rename an unit added to several objects.");
+        }
+
+        if (owner.containsKey(key)) {
+            throw new RuntimeException("Can't add new unit with already existing key.");
+        }
+
+        if (key == null) {
+            throw new RuntimeException("Units must have a key.");
+        }
+
+        owner.remove(old);
+        owner.put(key, unit);
+    }
+
+    /**
+     * Removes given key.
+     *
+     * The keys after it in the same run are moved back, so no search has
+     * to skip removed slots.
+     *
+     * @param   key     key to remove
+     * @return          unit the key had, or null
+     */
+    JsonUnit remove(String key) {
+        if (key == null || size == 0) {
+            return null;
+        }
+
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        JsonUnit old = units[slot];
+
+        if (old == null) {
+            return null;
+        }
+
+        int free = slot;
+
+        for (int next = (free + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int h = keys[next].hashCode();
+            int home = (h ^ (h >>> 16)) & mask;
+
+            // Move the key back unless its home is between the free slot
+            // and where it is now.
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                units[free] = units[next];
+                free = next;
+            }
+        }
+
+        keys[free] = null;
+        units[free] = null;
+        size--;
+
+        return old;
+    }
+
+    /**
+     * Removes every key, keeping the room for them.
+     */
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, null);
+            Arrays.fill(units, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Doubles the table.
+     */
+    void grow() {
+        String[] oldKeys = keys;
+        JsonUnit[] oldUnits = units;
+        keys = new String[oldKeys.length * 2];
+        units = new JsonUnit[oldKeys.length * 2];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                units[slot] = oldUnits[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package fi.esupponen.jsonparser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * JsonFile that decodes its units only when they are needed.
+ *
+ * The constructor only scans the structure of the top-level object and
+ * records where each member's value starts and ends. get() decodes just
+ * the unit asked for and keeps it. Everything else, like getUnits(),
+ * writing and changing the units, first decodes all the remaining units
+ * and then works like a normal JsonFile. Values that are never asked for
+ * are never decoded, but they are checked only when they are decoded, so
+ * an error inside one is thrown only then.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class LazyJsonFile extends JsonFile {
+
+    /**
+     * The JSON, or null after every unit has been decoded.
+     */
+    ByteBuffer source;
+
+    /**
+     * Keys of the members in the order they appear.
+     */
+    String[] keys;
+
+    /**
+     * Start positions of the values in source.
+     */
+    int[] starts;
+
+    /**
+     * End positions of the values in source.
+     */
+    int[] ends;
+
+    /**
+     * Units decoded so far, null for the others.
+     */
+    JsonUnit[] decoded;
+
+    /**
+     * Number of members.
+     */
+    int count;
+
+    /**
+     * Positions of the members by their keys.
+     */
+    HashMap<String, Integer> positions;
+
+    /**
+     * Have all the units been decoded to the list of JsonFile.
+     */
+    boolean materialized;
+
+    /**
+     * Constructs a file by scanning given JSON.
+     *
+     * @param   name    name for the file
+     * @param   source  UTF-8 bytes of one JSON object
+     */
+    public LazyJsonFile(String name, byte[] source) {
+        this(name, source, 0, source.length);
+    }
+
+    /**
+     * Constructs a file by scanning given buffer from its position to its
+     * limit.
+     *
+     * The buffer can be a mapped file. It is kept until every unit has been
+     * decoded, so its contents must not change in the meantime.
+     *
+     * @param   name    name for the file
+     * @param   source  buffer holding one JSON object as UTF-8
+     */
+    public LazyJsonFile(String name, ByteBuffer source) {
+        super(name);
+        init(source, source.position(), source.limit());
+    }
+
+    /**
+     * Constructs a file by scanning a part of given array.
+     *
+     * The array is kept, not copied, until every unit has been decoded, so
+     * it must not change in the meantime.
+     *
+     * @param   name    name for the file
+     * @param   source  array holding one JSON object as UTF-8
+     * @param   offset  position of the first byte
+     * @param   length  number of bytes
+     */
+    public LazyJsonFile(String name, byte[] source, int offset, int length) {
+        super(name);
+
+        if (offset < 0 || length < 0 || length > source.length - offset) {
+            throw new IndexOutOfBoundsException("Offset " + offset + ", length " + length
+                    + ", array length " + source.length);
+        }
+
+        init(ByteBuffer.wrap(source), offset, offset + length);
+    }
+
+    /**
+     * Scans the JSON between given positions of given buffer.
+     *
+     * @param   source  buffer holding the JSON
+     * @param   pos     position to start from
+     * @param   end     end of the JSON
+     */
+    void init(ByteBuffer source, int pos, int end) {
+        this.source = source;
+        this.keys = new String[16];
+        this.starts = new int[16];
+        this.ends = new int[16];
+        this.positions = new HashMap<>();
+        scan(pos, end);
+        this.decoded = new JsonUnit[count];
+    }
+
+    /**
+     * Reads the whole stream and scans it.
+     *
+     * @param   name    name for the file
+     * @param   in      stream holding one JSON object as UTF-8
+     * @return          scanned file
+     * @throws  IOException if reading fails
+     */
+    public static LazyJsonFile read(String name, InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(JsonReader.BUFFER_SIZE);
+        byte[] buffer = new byte[JsonReader.BUFFER_SIZE];
+        int count;
+
+        while ((count = in.read(buffer)) >= 0) {
+            bytes.write(buffer, 0, count);
+        }
+
+        return new LazyJsonFile(name, bytes.toByteArray());
+    }
+
+    /**
+     * Records the members of the object between given positions.
+     *
+     * @param   pos     position to start from
+     * @param   end     end of the JSON
+     */
+    void scan(int pos, int end) {
+        pos = JsonScanner.skipWhitespace(source, pos, end);
+
+        if (pos == end || source.get(pos) != '{') {
+            throw JsonScanner.syntaxError("Expected BEGIN_OBJECT", pos);
+        }
+
+        pos = JsonScanner.skipWhitespace(source, pos + 1, end);
+
+        if (pos < end && source.get(pos) == '}') {
+            pos++;
+        } else {
+            while (true) {
+                if (pos == end || source.get(pos) != '"') {
+                    throw JsonScanner.syntaxError("Expected a name", pos);
+                }
+
+                int keyEnd = JsonScanner.skipString(source, pos, end);
+                String key = decodeKey(pos, keyEnd);
+                pos = JsonScanner.skipWhitespace(source, keyEnd, end);
+
+                if (pos == end || source.get(pos) != ':') {
+                    throw JsonScanner.syntaxError("Expected ':'", pos);
+                }
+
+                int start = JsonScanner.skipWhitespace(source, pos + 1, end);
+                pos = JsonScanner.skipValue(source, start, end);
+                record(key, start, pos);
+                pos = JsonScanner.skipWhitespace(source, pos, end);
+
+                if (pos < end && source.get(pos) == ',') {
+                    pos = JsonScanner.skipWhitespace(source, pos + 1, end);
+                } else if (pos < end && source.get(pos) == '}') {
+                    pos++;
+                    break;
+                } else {
+                    throw JsonScanner.syntaxError("Expected ',' or '}'", pos);
+                }
+            }
+        }
+
+        if (JsonScanner.skipWhitespace(source, pos, end) != end) {
+            throw JsonScanner.syntaxError("Unexpected content after the end of the file", pos);
+        }
+    }
+
+    /**
+     * Decodes a key. ASCII keys without escapes are decoded without a
+     * reader. Others go through JsonReader, so they are checked the same
+     * way, malformed UTF-8 included.
+     *
+     * @param   start   position of the opening quote
+     * @param   end     position after the closing quote
+     * @return          key
+     */
+    String decodeKey(int start, int end) {
+        for (int i = start + 1; i < end - 1; i++) {
+            byte c = source.get(i);
+
+            if (c == '\\' || c < 0x20) {
+                try {
+                    JsonReader reader = new JsonReader(source, start, end - start);
+                    reader.next();
+
+                    return reader.getString();
+                } catch (IOException e) {
+                    // Reading an array never throws IOException.
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        int length = end - start - 2;
+        byte[] bytes;
+        int offset;
+
+        if (source.hasArray()) {
+            bytes = source.array();
+            offset = source.arrayOffset() + start + 1;
+        } else {
+            bytes = new byte[length];
+            offset = 0;
+
+            for (int i = 0; i < length; i++) {
+                bytes[i] = source.get(start + 1 + i);
+            }
+        }
+
+        return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Records a member.
+     *
+     * @param   key     key of the member
+     * @param   start   start position of the value
+     * @param   end     end position of the value
+     */
+    void record(String key, int start, int end) {
+        if (positions.put(key, count) != null) {
+            throw new RuntimeException("Can't add new unit with already existing key.");
+        }
+
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+
+        keys[count] = key;
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    /**
+     * Returns the unit at given position, decoding it if needed.
+     *
+     * @param   position    position of the member
+     * @return              unit
+     */
+    JsonUnit decode(int position) {
+        JsonUnit unit = decoded[position];
+
+        if (unit == null) {
+            try {
+                JsonReader reader = new JsonReader(source, starts[position], ends[position] - starts[position]);
+                unit = reader.readUnit(keys[position]);
+
+                // The scanner ends a value at the next delimiter, so the
+                // reader must have used up the whole value.
+                if (reader.peekNonWhitespace() != -1) {
+                    throw reader.syntaxError("Expected ',' or '}'");
+                }
+            } catch (IOException e) {
+                // Reading an array never throws IOException.
+                throw new UncheckedIOException(e);
+            }
+
+            decoded[position] = unit;
+        }
+
+        return unit;
+    }
+
+    /**
+     * Decodes every remaining unit and moves them to the list of JsonFile.
+     *
+     * If a unit can't be decoded, the file is left as it was.
+     */
+    void materialize() {
+        if (!materialized) {
+            // Decode everything first, so a bad value leaves the file lazy
+            // and throws again the next time.
+            for (int i = 0; i < count; i++) {
+                decode(i);
+            }
+
+            materialized = true;
+            units.ensureCapacity(count);
+
+            for (int i = 0; i < count; i++) {
+                super.addUnit(decoded[i]);
+            }
+
+            source = null;
+            keys = null;
+            starts = null;
+            ends = null;
+            decoded = null;
+            positions = null;
+        }
+    }
+
+    /**
+     * Returns the number of units without decoding them.
+     *
+     * @return  number of units
+     */
+    public int size() {
+        return materialized ? units.size() : count;
+    }
+
+    @Override
+    public boolean alreadyUsed(String key) {
+        return materialized ? super.alreadyUsed(key) : positions.containsKey(key);
+    }
+
+    @Override
+    public JsonUnit get(String key) {
+        if (materialized) {
+            return super.get(key);
+        }
+
+        Integer position = positions.get(key);
+
+        return position == null ? null : decode(position);
+    }
+
+    @Override
+    void addUnit(JsonUnit unit) {
+        materialize();
+        super.addUnit(unit);
+    }
+
+    @Override
+    public JsonUnit remove(int position) {
+        materialize();
+
+        return super.remove(position);
+    }
+
+    @Override
+    public JsonUnit remove(String key) {
+        materialize();
+
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        if (!materialized) {
+            // Nothing left to decode.
+            count = 0;
+            materialize();
+        }
+
+        super.clear();
+    }
+
+    @Override
+    public List<JsonUnit> getUnits() {
+        materialize();
+
+        return super.getUnits();
+    }
+
+    @Override
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        materialize();
+        super.writeTo(out, style, depth);
+    }
+}
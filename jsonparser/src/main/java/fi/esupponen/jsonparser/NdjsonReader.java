@@ -0,0 +1,307 @@
+package fi.esupponen.jsonparser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads newline delimited JSON, one JsonFile per line.
+ *
+ * Every record must be on a line of its own. Blank lines are skipped, but
+ * a line break inside a record, or two records on one line, is a syntax
+ * error, so the records are the same however the input is split.
+ *
+ * A reader is an iterator over the records of a stream. All the records
+ * are read with the same JsonReader, so its buffers are reused and only
+ * the records themselves are allocated. nextInto() refills one JsonFile
+ * for every record, so not even they are. parallelStream() reads a buffer or
+ * a file on several threads instead, by splitting it at line breaks.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class NdjsonReader implements Iterator<JsonFile>, Closeable {
+
+    /**
+     * Smallest part of a buffer worth splitting off for another thread.
+     */
+    static final int MIN_SPLIT = 64 * 1024;
+
+    /**
+     * Reader reading the records.
+     */
+    JsonReader reader;
+
+    /**
+     * Name for the records.
+     */
+    String name;
+
+    /**
+     * Constructs a reader reading UTF-8 records from given stream.
+     *
+     * @param   in      stream to read
+     * @param   name    name for the records
+     */
+    public NdjsonReader(InputStream in, String name) {
+        this(new JsonReader(in), name);
+    }
+
+    /**
+     * Constructs a reader reading records with given reader.
+     *
+     * @param   reader  reader to read with
+     * @param   name    name for the records
+     */
+    NdjsonReader(JsonReader reader, String name) {
+        this.reader = reader;
+        this.name = name;
+        reader.singleLine = true;
+    }
+
+    /**
+     * Is there another record.
+     *
+     * @return  is there another record
+     */
+    @Override
+    public boolean hasNext() {
+        try {
+            return reader.peekNonWhitespace() != -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets whether string values are interned like names are. See
+     * JsonReader.setInternValues().
+     *
+     * @param   intern  intern string values
+     */
+    public void setInternValues(boolean intern) {
+        reader.setInternValues(intern);
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return  next record
+     */
+    @Override
+    public JsonFile next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        try {
+            JsonFile file = reader.readFile(name);
+            reader.endLine();
+
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the next record into given file, reusing its units.
+     *
+     * Passing the same file for every record keeps the steady state free of
+     * allocation, apart from strings. See JsonReader.readInto().
+     *
+     * @param   file    file to refill
+     * @return          the same file
+     */
+    public JsonFile nextInto(JsonFile file) {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        try {
+            reader.readInto(file);
+            reader.endLine();
+
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the remaining records as a sequential stream.
+     *
+     * @return  stream of records
+     */
+    public Stream<JsonFile> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Closes the stream.
+     *
+     * @throws  IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Returns the records of given buffer, between its position and limit,
+     * as a parallel stream.
+     *
+     * @param   bytes   buffer holding the records as UTF-8
+     * @param   name    name for the records
+     * @return          stream of records
+     */
+    public static Stream<JsonFile> parallelStream(ByteBuffer bytes, String name) {
+        return StreamSupport.stream(new RecordSpliterator(bytes, name, bytes.position(), bytes.limit()), true);
+    }
+
+    /**
+     * Returns the records of given file as a parallel stream.
+     *
+     * The file is mapped to memory. Files too large to map at once are read
+     * as a sequential stream.
+     *
+     * @param   path    file to read
+     * @param   name    name for the records
+     * @return          stream of records
+     * @throws  IOException if the file can't be opened
+     */
+    public static Stream<JsonFile> parallelStream(Path path, String name) throws IOException {
+        FileChannel channel = FileChannel.open(path);
+
+        try {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                NdjsonReader reader = new NdjsonReader(new JsonReader(channel), name);
+
+                return reader.stream().onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            channel.close();
+
+            return parallelStream(bytes, name);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Spliterator reading the records of a part of a buffer.
+     *
+     * Splits only before it has been advanced, always right after a line
+     * break, so no record is ever cut in two.
+     */
+    static class RecordSpliterator implements Spliterator<JsonFile> {
+
+        /**
+         * Buffer holding the records.
+         */
+        ByteBuffer bytes;
+
+        /**
+         * Name for the records.
+         */
+        String name;
+
+        /**
+         * Part of the buffer left for this spliterator.
+         */
+        int start;
+        int end;
+
+        /**
+         * Reader reading the records, created on the first advance.
+         */
+        JsonReader reader;
+
+        /**
+         * Constructs a spliterator for the part from start to end.
+         */
+        RecordSpliterator(ByteBuffer bytes, String name, int start, int end) {
+            this.bytes = bytes;
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super JsonFile> action) {
+            try {
+                if (reader == null) {
+                    reader = new JsonReader(bytes, start, end - start);
+                    reader.singleLine = true;
+                }
+
+                if (reader.peekNonWhitespace() == -1) {
+                    return false;
+                }
+
+                JsonFile file = reader.readFile(name);
+                reader.endLine();
+                action.accept(file);
+
+                return true;
+            } catch (IOException e) {
+                // Reading a buffer never throws IOException.
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Spliterator<JsonFile> trySplit() {
+            if (reader != null || end - start < 2 * MIN_SPLIT) {
+                return null;
+            }
+
+            int split = start + (end - start) / 2;
+
+            while (split < end && bytes.get(split) != '\n') {
+                split++;
+            }
+
+            if (end - split < MIN_SPLIT) {
+                return null;
+            }
+
+            RecordSpliterator first = new RecordSpliterator(bytes, name, start, split + 1);
+            start = split + 1;
+
+            return first;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - start;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package fi.esupponen.jsonparser;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes newline delimited JSON, one minified JsonFile per line.
+ *
+ * Records are encoded to one buffer, which is written out whenever it
+ * fills up. The stream is also flushed after every batchSize records, so
+ * readers at the other end get the records in batches instead of one by
+ * one or only at the end.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class NdjsonWriter implements Closeable, Flushable {
+
+    /**
+     * Default number of records between flushes.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Output the records are encoded to.
+     */
+    Utf8Output out;
+
+    /**
+     * Number of records between flushes.
+     */
+    int batchSize;
+
+    /**
+     * Number of records written since the last flush.
+     */
+    int pending;
+
+    /**
+     * Constructs a writer writing to given stream.
+     *
+     * @param   stream  stream to write to
+     */
+    public NdjsonWriter(OutputStream stream) {
+        this(stream, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a writer flushing given stream after every batchSize
+     * records.
+     *
+     * @param   stream      stream to write to
+     * @param   batchSize   number of records between flushes
+     */
+    public NdjsonWriter(OutputStream stream, int batchSize) {
+        this(new Utf8Output(stream), batchSize);
+    }
+
+    /**
+     * Constructs a writer writing to given channel after every batchSize
+     * records.
+     *
+     * @param   channel     channel to write to
+     * @param   batchSize   number of records between flushes
+     */
+    public NdjsonWriter(WritableByteChannel channel, int batchSize) {
+        this(new Utf8Output(channel), batchSize);
+    }
+
+    /**
+     * Constructs a writer writing to given output.
+     *
+     * @param   out         output to write to
+     * @param   batchSize   number of records between flushes
+     */
+    NdjsonWriter(Utf8Output out, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+
+        this.out = out;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Writes a record on its own line.
+     *
+     * @param   record  record to write
+     * @throws  IOException if writing fails
+     */
+    public void write(JsonFile record) throws IOException {
+        record.writeTo(out, JsonStyle.MINIFIED, 0);
+        out.append('\n');
+
+        if (++pending >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes everything buffered and flushes the stream.
+     *
+     * @throws  IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+        pending = 0;
+    }
+
+    /**
+     * Flushes and closes the stream or channel.
+     *
+     * @throws  IOException if writing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (out.stream != null) {
+                out.stream.close();
+            } else {
+                out.channel.close();
+            }
+        }
+    }
+}
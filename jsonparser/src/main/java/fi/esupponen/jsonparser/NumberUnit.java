@@ -1,11 +1,10 @@
 package fi.esupponen.jsonparser;
 
-import java.text.DecimalFormat;
-import java.io.PrintWriter;
+import java.io.IOException;
 
 /**
  * @author      Essi Supponen [essi.supponen@cs.tamk.fi]
- * @version     2018-1217
+ * @version     2026-1018
  * @since       2018-1120
  */
 public class NumberUnit implements JsonUnit {
@@ -16,14 +15,22 @@ public class NumberUnit implements JsonUnit {
     String key;
 
     /**
-     * The value of the unit.
+     * The key in quotes as UTF-8, copied as is to byte outputs. Encoded
+     * when the unit is first written to one. Volatile, because several
+     * threads may write the same unit.
      */
-    double value;
+    volatile byte[] encodedKey;
+
+    /**
+     * Index of the file or object the unit was added to, kept up to date
+     * by setKey().
+     */
+    KeyIndex owner;
 
     /**
-     * Format for printing integers.
+     * The value of the unit.
      */
-    DecimalFormat intFormat;
+    double value;
 
     /**
      * Constructs an unit using given key and value.
@@ -34,39 +41,13 @@ public class NumberUnit implements JsonUnit {
     public NumberUnit(String key, double value) {
         this.key = key;
         this.value = value;
-        intFormat = new DecimalFormat("#.#");
     }
 
     /**
      * Prints the key and the value to the console.
      */
     public void jsonPrint() {
-        if (value - (int)value != 0) {
-            System.out.print("\"" + key + "\": " + value);
-        } else {
-            System.out.print("\"" + key + "\": " );
-            System.out.print(intFormat.format(value));
-        }
-    }
-
-    /**
-     * Writes the expression of this unit to given json-file.
-     * 
-     * Uses leadingSpaces to have proper indentation. Prints key inside
-     * quotation marks and then value.
-     *
-     * @param   leadingSpaces   indentation
-     * @param   writer          json-file   
-     */
-    public void jsonPrint(String leadingSpaces, PrintWriter writer) {
-        writer.print(leadingSpaces);
-
-        if (value - (int)value != 0) {
-            writer.print("\"" + key + "\": " + value);
-        } else {
-            writer.print("\"" + key + "\": " );
-            writer.print(intFormat.format(value));
-        }
+        System.out.print(toString());
     }
 
     /**
@@ -90,10 +71,15 @@ public class NumberUnit implements JsonUnit {
     /**
      * Sets a new key.
      *
+     * A file or an object the unit has been added to finds it by the new
+     * key, and the key must not already be used there.
+     *
      * @param key       new key
      */
     public void setKey(String key) {
+        KeyIndex.rename(owner, this, this.key, key);
         this.key = key;
+        this.encodedKey = null;
     }
 
     /**
@@ -114,6 +100,23 @@ public class NumberUnit implements JsonUnit {
         this.value = (double)value;
     }
 
+    /**
+     * Appends the key and the value to given output.
+     *
+     * @param   out     output to append to
+     * @param   style   layout to use
+     * @param   depth   nesting level of the unit
+     * @throws  IOException if appending fails
+     */
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        byte[] encoded = style.name(out, key, encodedKey);
+
+        if (encoded != encodedKey) {
+            encodedKey = encoded;
+        }
+        NumberWriter.write(out, value);
+    }
+
     /**
      * Returns a string representation of the object.
      *
@@ -121,14 +124,9 @@ public class NumberUnit implements JsonUnit {
      */
     @Override
     public String toString() {
-        String str = "\"" + key + "\": ";
-
-        if (value - (int)value != 0) {
-            str += value;
-        } else {
-            str += intFormat.format(value);
-        }
+        StringBuilder builder = new StringBuilder();
+        writeTo(builder);
 
-        return str;
+        return builder.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package fi.esupponen.jsonparser;
+
+import java.io.IOException;
+
+/**
+ * Writes numbers as JSON without creating objects.
+ *
+ * All the methods are static and keep no state, so they can be used from
+ * any thread. Digits are appended one by one from the most significant
+ * one, so no scratch buffer is needed either.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+final class NumberWriter {
+
+    /**
+     * Powers of ten that fit in a long.
+     */
+    static final long[] LONG_POWERS = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+        100000000L, 1000000000L, 10000000000L, 100000000000L,
+        1000000000000L, 10000000000000L, 100000000000000L,
+        1000000000000000L, 10000000000000000L, 100000000000000000L,
+        1000000000000000000L
+    };
+
+    /**
+     * Largest integer below which every integer is exact as a double.
+     */
+    static final double EXACT_LIMIT = 9007199254740992.0;
+
+    private NumberWriter() {
+    }
+
+    /**
+     * Returns the number of decimal digits in a non-negative long.
+     *
+     * @param   value   value to measure
+     * @return          number of digits
+     */
+    static int digitCount(long value) {
+        int digits = 1;
+
+        while (digits < LONG_POWERS.length && value >= LONG_POWERS[digits]) {
+            digits++;
+        }
+
+        return digits;
+    }
+
+    /**
+     * Appends the digits of a non-negative long, padded with zeros to given
+     * width.
+     *
+     * @param   out     output to append to
+     * @param   value   value to append
+     * @param   digits  number of digits to append
+     * @throws  IOException if appending fails
+     */
+    static void writeDigits(Appendable out, long value, int digits) throws IOException {
+        for (int i = digits - 1; i >= 0; i--) {
+            long power = LONG_POWERS[i];
+            int digit = (int) (value / power);
+            out.append((char) ('0' + digit));
+            value -= digit * power;
+        }
+    }
+
+    /**
+     * Appends a long.
+     *
+     * @param   out     output to append to
+     * @param   value   value to append
+     * @throws  IOException if appending fails
+     */
+    static void write(Appendable out, long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.append("-9223372036854775808");
+                return;
+            }
+
+            out.append('-');
+            value = -value;
+        }
+
+        writeDigits(out, value, digitCount(value));
+    }
+
+    /**
+     * Appends a double using as few digits as possible.
+     *
+     * Integers within the range of long are appended without a fraction.
+     * Other values are scaled by growing powers of ten until the scaled
+     * value is an integer that divides back to exactly the same double.
+     * That integer is appended with a decimal point, so the text always
+     * reads back to the same value. Values too large or too small for that
+     * fall back to Double.toString(). NaN and infinities are not valid JSON
+     * and are appended as null.
+     *
+     * @param   out     output to append to
+     * @param   value   value to append
+     * @throws  IOException if appending fails
+     */
+    static void write(Appendable out, double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append("null");
+            return;
+        }
+
+        if (value == 0) {
+            out.append(1 / value < 0 ? "-0" : "0");
+            return;
+        }
+
+        long integer = (long) value;
+
+        if (integer == value && integer != Long.MAX_VALUE && integer != Long.MIN_VALUE) {
+            write(out, integer);
+            return;
+        }
+
+        double abs = Math.abs(value);
+
+        for (int scale = 1; scale < JsonReader.POWERS_OF_TEN.length; scale++) {
+            double power = JsonReader.POWERS_OF_TEN[scale];
+            double scaled = Math.rint(abs * power);
+
+            if (scaled >= EXACT_LIMIT) {
+                break;
+            }
+
+            if (scaled / power == abs) {
+                if (value < 0) {
+                    out.append('-');
+                }
+
+                long mantissa = (long) scaled;
+                int digits = digitCount(mantissa);
+
+                if (digits <= scale) {
+                    out.append("0.");
+
+                    for (int i = digits; i < scale; i++) {
+                        out.append('0');
+                    }
+
+                    writeDigits(out, mantissa, digits);
+                } else {
+                    long power10 = LONG_POWERS[scale];
+                    writeDigits(out, mantissa / power10, digits - scale);
+                    out.append('.');
+                    writeDigits(out, mantissa % power10, scale);
+                }
+
+                return;
+            }
+        }
+
+        out.append(Double.toString(value));
+    }
+}
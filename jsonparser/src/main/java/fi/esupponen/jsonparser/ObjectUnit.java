@@ -1,11 +1,13 @@
 package fi.esupponen.jsonparser;
 
-import java.util.LinkedList;
-import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.io.IOException;
 
 /**
  * @author      Essi Supponen [essi.supponen@cs.tamk.fi]
- * @version     2018-1217
+ * @version     2026-1018
  * @since       2018-1120
  */
 public class ObjectUnit implements JsonUnit {
@@ -15,10 +17,38 @@ public class ObjectUnit implements JsonUnit {
      */
     String key;
 
+    /**
+     * The key in quotes as UTF-8, copied as is to byte outputs. Encoded
+     * when the unit is first written to one. Volatile, because several
+     * threads may write the same unit.
+     */
+    volatile byte[] encodedKey;
+
+    /**
+     * Index of the file or object the unit was added to, kept up to date
+     * by setKey().
+     */
+    KeyIndex owner;
+
     /**
      * The value of the unit.
      */
-    LinkedList<JsonUnit> values;
+    ArrayList<JsonUnit> values;
+
+    /**
+     * Read-only view of values given out by getValues().
+     */
+    List<JsonUnit> valuesView;
+
+    /**
+     * Values of the unit by their keys.
+     */
+    KeyIndex index;
+
+    /**
+     * Length of the last toString() result, used to size the next builder.
+     */
+    int lastLength;
 
     /**
      * Constructs an unit using given key and value.
@@ -26,21 +56,10 @@ public class ObjectUnit implements JsonUnit {
      * @param   key     key of the unit
      * @param   values  values of the unit
      */
-    public ObjectUnit(String key, LinkedList<JsonUnit> values) {
+    public ObjectUnit(String key, List<JsonUnit> values) {
         this.key = key;
-        this.values = new LinkedList<>();
-
-        if (values == null) {
-            this.values = null;
-        } else  {
-            for (JsonUnit value : values) {
-                if (alreadyUsed(value.getKey())) {
-                    throw new RuntimeException("Can't set a list with multiple same keys.");
-                } else {
-                    this.values.add(value);
-                }
-            }
-        }
+        this.lastLength = 16;
+        setValue(values);
     }
 
     /**
@@ -50,16 +69,17 @@ public class ObjectUnit implements JsonUnit {
      * @return  already used
      */
     public boolean alreadyUsed(String key) {
-        boolean alreadyUsed = false;
-
-        for (JsonUnit value : values) {
-            if (value.getKey().equals(key)) {
-                alreadyUsed = true;
-                break;
-            }
-        }
+        return index != null && index.containsKey(key);
+    }
 
-        return alreadyUsed;
+    /**
+     * Returns the value with given key.
+     *
+     * @param   key     key to be found
+     * @return          value with the key, or null if there is none
+     */
+    public JsonUnit get(String key) {
+        return index == null ? null : index.get(key);
     }
 
     /**
@@ -72,7 +92,9 @@ public class ObjectUnit implements JsonUnit {
      */
     public void add(JsonUnit unit) {
         if (values == null) {
-            values = new LinkedList<>();
+            values = new ArrayList<>();
+            valuesView = Collections.unmodifiableList(values);
+            index = new KeyIndex(0);
         }
 
         if (unit instanceof JsonFile) {
@@ -82,38 +104,56 @@ public class ObjectUnit implements JsonUnit {
                 throw new RuntimeException("Can't add new unit with already existing key.");
             } else {
                 values.add(unit);
+                index.put(unit.getKey(), unit);
             }
         }
     }
 
     /**
-     * Writes the expression of this unit to given json-file.
-     * 
-     * Uses leadingSpaces to have proper indentation. Prints key inside
-     * quotation marks and then value.
+     * Removes the value at given position.
      *
-     * @param   leadingSpaces   indentation
-     * @param   writer          json-file   
+     * @param   position    position of the value
+     * @return              removed value
      */
-    public void jsonPrint(String leadingSpaces, PrintWriter writer) {
-        writer.print(leadingSpaces + "\"" + key + "\": ");
+    public JsonUnit remove(int position) {
+        if (values == null) {
+            throw new IndexOutOfBoundsException("The value is null.");
+        }
 
+        JsonUnit unit = values.remove(position);
+        index.remove(unit.getKey());
+
+        return unit;
+    }
+
+    /**
+     * Removes the value with given key.
+     *
+     * @param   key     key of the value
+     * @return          removed value, or null if there was none
+     */
+    public JsonUnit remove(String key) {
+        JsonUnit unit = index == null ? null : index.remove(key);
+
+        if (unit != null) {
+            values.remove(unit);
+        }
+
+        return unit;
+    }
+
+    /**
+     * Removes every value, leaving an empty object.
+     */
+    public void clear() {
         if (values == null) {
-            writer.print("null");
+            setValue(new ArrayList<JsonUnit>());
         } else {
-            writer.println("{");
-            for (int i = 0; i < values.size(); i++) {
-                values.get(i).jsonPrint(leadingSpaces + "  ", writer);
-
-                if (i < values.size() - 1) {
-                    writer.println(",");
-                }
-            }
-            writer.println();
-            writer.print(leadingSpaces + "}");
+            values.clear();
+            index.clear();
         }
     }
-    
+
     /**
      * Returns the key of the unit.
      *
@@ -124,21 +164,30 @@ public class ObjectUnit implements JsonUnit {
     }
 
     /**
-     * Returns the value of the unit.
+     * Returns the value of the unit as a read-only list.
      *
-     * @return  values
+     * The list is a view, so it follows later changes. Values are added
+     * with add() and removed with remove() or clear(), which keep the key
+     * index up to date.
+     *
+     * @return  values, or null if the value is null
      */
-    public LinkedList<JsonUnit> getValues() {
-        return values;
+    public List<JsonUnit> getValues() {
+        return valuesView;
     }
 
     /**
      * Sets a new key.
      *
+     * A file or an object the unit has been added to finds it by the new
+     * key, and the key must not already be used there.
+     *
      * @param key       new key
      */
     public void setKey(String key) {
+        KeyIndex.rename(owner, this, this.key, key);
         this.key = key;
+        this.encodedKey = null;
     }
 
     /**
@@ -146,45 +195,66 @@ public class ObjectUnit implements JsonUnit {
      ^
      * @param values    new value
      */
-    public void setValue(LinkedList<JsonUnit> values) {
+    public void setValue(List<JsonUnit> values) {
+        if (index != null) {
+            // The old values may be set again, so they must not look like
+            // they still belong here.
+            index.clear();
+        }
+
         if (values == null) {
             this.values = null;
+            this.valuesView = null;
+            this.index = null;
         } else {
-            this.values = new LinkedList<JsonUnit>();
+            this.values = new ArrayList<>(values.size());
+            this.valuesView = Collections.unmodifiableList(this.values);
+            this.index = new KeyIndex(values.size());
 
             for (JsonUnit value : values) {
                 if (alreadyUsed(value.getKey())) {
                     throw new RuntimeException("Can't set a list with multiple same keys.");
                 } else {
                     this.values.add(value);
+                    this.index.put(value.getKey(), value);
                 }
             }
         }
     }
 
     /**
-     * Returns a string representation of the object.
+     * Appends the key and the values inside curly brackets to given output.
      *
-     * @return  string representation of object
+     * @param   out     output to append to
+     * @param   style   layout to use
+     * @param   depth   nesting level of the unit
+     * @throws  IOException if appending fails
      */
-    @Override
-    public String toString() {
-        String str = "\"" + key + "\": ";
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        byte[] encoded = style.name(out, key, encodedKey);
+
+        if (encoded != encodedKey) {
+            encodedKey = encoded;
+        }
 
         if (values == null) {
-            str += "null";
+            out.append("null");
         } else {
-            str += "{";
-            for (int i = 0; i < values.size(); i++) {
-                str += values.get(i).toString();
-
-                if (i < values.size() - 1) {
-                    str += ", ";
-                }
-            }
-            str += "}";
+            JsonFile.writeMembers(out, values, style, depth);
         }
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return  string representation of object
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(lastLength);
+        writeTo(builder);
+        lastLength = builder.length();
 
-        return str;
+        return builder.toString();
     }
 }
\ No newline at end of file
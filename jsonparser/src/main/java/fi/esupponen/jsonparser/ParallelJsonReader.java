@@ -0,0 +1,319 @@
+package fi.esupponen.jsonparser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads files whose large arrays of objects are parsed on several threads.
+ *
+ * The members of the top-level object are first found with a structural
+ * scan. Every member that is an array of objects and at least threshold
+ * bytes long is scanned once more to find where each object starts and
+ * ends, and the objects are then parsed in chunks on a ForkJoinPool. The
+ * resulting JsonFiles are stored by their position, so the array keeps
+ * its order. Other members, and whole inputs smaller than the threshold,
+ * are parsed on the calling thread. The result is the same JsonFile
+ * JsonReader.readFile() would give.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class ParallelJsonReader implements Closeable {
+
+    /**
+     * Default smallest number of bytes worth parsing in parallel.
+     */
+    public static final int DEFAULT_THRESHOLD = 1 << 20;
+
+    /**
+     * Pool the objects are parsed on.
+     */
+    ForkJoinPool pool;
+
+    /**
+     * Was the pool created by this reader.
+     */
+    boolean ownsPool;
+
+    /**
+     * Smallest number of bytes worth parsing in parallel.
+     */
+    int threshold;
+
+    /**
+     * Constructs a reader using the common pool.
+     */
+    public ParallelJsonReader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a reader with its own pool of given parallelism.
+     *
+     * The pool is shut down by close().
+     *
+     * @param   parallelism     number of threads
+     */
+    public ParallelJsonReader(int parallelism) {
+        this(new ForkJoinPool(parallelism));
+        this.ownsPool = true;
+    }
+
+    /**
+     * Constructs a reader using given pool.
+     *
+     * @param   pool    pool to parse on
+     */
+    public ParallelJsonReader(ForkJoinPool pool) {
+        this.pool = pool;
+        this.threshold = DEFAULT_THRESHOLD;
+    }
+
+    /**
+     * Sets the smallest number of bytes worth parsing in parallel.
+     *
+     * @param   threshold   number of bytes
+     */
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Reads a file from given array.
+     *
+     * @param   name    name for the file
+     * @param   bytes   UTF-8 bytes of one JSON object
+     * @return          read file
+     */
+    public JsonFile readFile(String name, byte[] bytes) {
+        return readFile(name, ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Reads a file from given buffer between its position and limit.
+     *
+     * @param   name    name for the file
+     * @param   bytes   buffer holding one JSON object as UTF-8
+     * @return          read file
+     */
+    public JsonFile readFile(String name, ByteBuffer bytes) {
+        int start = bytes.position();
+        int end = bytes.limit();
+
+        try {
+            if (end - start < threshold || pool.getParallelism() == 1) {
+                JsonReader reader = new JsonReader(bytes, start, end - start);
+                JsonFile file = reader.readFile(name);
+
+                if (reader.peek() != JsonToken.END_DOCUMENT) {
+                    throw reader.syntaxError("Unexpected content after the end of the file");
+                }
+
+                return file;
+            }
+        } catch (IOException e) {
+            // Reading a buffer never throws IOException.
+            throw new UncheckedIOException(e);
+        }
+
+        LazyJsonFile members = new LazyJsonFile(name, bytes);
+        JsonFile file = new JsonFile(name);
+        file.units.ensureCapacity(members.count);
+
+        for (int i = 0; i < members.count; i++) {
+            JsonUnit unit = null;
+
+            if (members.ends[i] - members.starts[i] >= threshold && bytes.get(members.starts[i]) == '[') {
+                unit = readArray(bytes, members.keys[i], members.starts[i], members.ends[i]);
+            }
+
+            file.addUnit(unit != null ? unit : members.decode(i));
+        }
+
+        return file;
+    }
+
+    /**
+     * Reads a file by mapping it to memory.
+     *
+     * The file is named after the file name without the .json extension.
+     * Files too large to map at once are read on one thread in windows.
+     *
+     * @param   path    path of the file
+     * @return          read file
+     * @throws  IOException if the file can't be read
+     */
+    public JsonFile readFile(Path path) throws IOException {
+        String name = path.getFileName().toString();
+
+        if (name.endsWith(".json")) {
+            name = name.substring(0, name.length() - 5);
+        }
+
+        try (FileChannel channel = FileChannel.open(path)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                JsonReader reader = new JsonReader(channel);
+                JsonFile file = reader.readFile(name);
+
+                if (reader.peek() != JsonToken.END_DOCUMENT) {
+                    throw reader.syntaxError("Unexpected content after the end of the file");
+                }
+
+                return file;
+            }
+
+            return readFile(name, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Parses an array of objects in parallel.
+     *
+     * @param   bytes   buffer holding the array
+     * @param   key     key of the array
+     * @param   start   position of the opening bracket
+     * @param   end     position after the closing bracket
+     * @return          read unit, or null if the array is empty or holds
+     *                  something else than objects
+     */
+    JsonUnit readArray(ByteBuffer bytes, String key, int start, int end) {
+        int[] starts = new int[1024];
+        int[] ends = new int[1024];
+        int count = 0;
+        int pos = JsonScanner.skipWhitespace(bytes, start + 1, end);
+
+        if (bytes.get(pos) == ']') {
+            return null;
+        }
+
+        while (true) {
+            if (bytes.get(pos) != '{') {
+                return null;
+            }
+
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+
+            starts[count] = pos;
+            pos = JsonScanner.skipValue(bytes, pos, end);
+            ends[count] = pos;
+            count++;
+            pos = JsonScanner.skipWhitespace(bytes, pos, end);
+
+            if (bytes.get(pos) == ',') {
+                pos = JsonScanner.skipWhitespace(bytes, pos + 1, end);
+            } else if (bytes.get(pos) == ']') {
+                break;
+            } else {
+                throw JsonScanner.syntaxError("Expected ',' or ']'", pos);
+            }
+        }
+
+        JsonFile[] files = new JsonFile[count];
+        int grain = Math.max(1, count / (pool.getParallelism() * 8));
+        pool.invoke(new ParseTask(bytes, key, starts, ends, files, 0, count, grain));
+
+        return new ArrayUnit<Object>(key, new ArrayList<Object>(Arrays.asList(files)));
+    }
+
+    /**
+     * Shuts down the pool if it was created by this reader.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Parses a range of objects, splitting it while it is larger than grain.
+     */
+    static class ParseTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Buffer holding the objects.
+         */
+        ByteBuffer bytes;
+
+        /**
+         * Name for the parsed JsonFiles.
+         */
+        String key;
+
+        /**
+         * Start and end positions of all the objects.
+         */
+        int[] starts;
+        int[] ends;
+
+        /**
+         * Parsed objects by their position.
+         */
+        JsonFile[] files;
+
+        /**
+         * Range of objects to parse, and the size below which it is parsed
+         * without splitting.
+         */
+        int from;
+        int to;
+        int grain;
+
+        /**
+         * Constructs a task parsing objects from the position from to the
+         * position to.
+         */
+        ParseTask(ByteBuffer bytes, String key, int[] starts, int[] ends, JsonFile[] files,
+                int from, int to, int grain) {
+            this.bytes = bytes;
+            this.key = key;
+            this.starts = starts;
+            this.ends = ends;
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grain) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseTask(bytes, key, starts, ends, files, from, middle, grain),
+                        new ParseTask(bytes, key, starts, ends, files, middle, to, grain));
+                return;
+            }
+
+            JsonReader reader = new JsonReader(bytes, starts[from], ends[from] - starts[from]);
+
+            try {
+                for (int i = from; i < to; i++) {
+                    reader.reset(starts[i], ends[i] - starts[i]);
+                    files[i] = reader.readFile(key);
+
+                    if (reader.peekNonWhitespace() != -1) {
+                        throw reader.syntaxError("Expected ',' or ']'");
+                    }
+                }
+            } catch (IOException e) {
+                // Reading a buffer never throws IOException.
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package fi.esupponen.jsonparser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Writes files whose large arrays of JsonFiles are rendered on several
+ * threads.
+ *
+ * Members of the file are written in order on the calling thread, except
+ * arrays of at least threshold JsonFiles. Their values are cut into chunks
+ * of CHUNK_SIZE values, and one wave of chunks at a time is rendered on a
+ * ForkJoinPool, every chunk to its own byte buffer. The buffers of a wave
+ * are then written in order with one gathering write, and reused for the
+ * next wave, so memory use does not grow with the array. The bytes are
+ * exactly the same JsonFile.writeTo() would write.
+ *
+ * JsonFile.parse() writes through a writer on the common pool. Writing to
+ * a stream or a channel stays sequential unless a writer is used
+ * explicitly, because the caller may already be on a pool thread, and so
+ * does writeAsync(), which reports its progress unit by unit. Only arrays
+ * that are members of the file itself are split. Arrays nested deeper,
+ * and arrays whose first value is not a JsonFile, are rendered on the
+ * calling thread.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+public class ParallelJsonWriter implements Closeable {
+
+    /**
+     * Default smallest number of JsonFiles worth rendering in parallel.
+     */
+    public static final int DEFAULT_THRESHOLD = 4096;
+
+    /**
+     * Number of values rendered by one task.
+     */
+    static final int CHUNK_SIZE = 512;
+
+    /**
+     * Pool the chunks are rendered on.
+     */
+    ForkJoinPool pool;
+
+    /**
+     * Was the pool created by this writer.
+     */
+    boolean ownsPool;
+
+    /**
+     * Smallest number of JsonFiles worth rendering in parallel.
+     */
+    int threshold;
+
+    /**
+     * Constructs a writer using the common pool.
+     */
+    public ParallelJsonWriter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a writer with its own pool of given parallelism.
+     *
+     * The pool is shut down by close().
+     *
+     * @param   parallelism     number of threads
+     */
+    public ParallelJsonWriter(int parallelism) {
+        this(new ForkJoinPool(parallelism));
+        this.ownsPool = true;
+    }
+
+    /**
+     * Constructs a writer using given pool.
+     *
+     * @param   pool    pool to render on
+     */
+    public ParallelJsonWriter(ForkJoinPool pool) {
+        this.pool = pool;
+        this.threshold = DEFAULT_THRESHOLD;
+    }
+
+    /**
+     * Sets the smallest number of JsonFiles worth rendering in parallel.
+     *
+     * @param   threshold   number of JsonFiles
+     */
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Creates the json-file of given file like JsonFile.parse() does.
+     *
+     * @param   file    file to write
+     * @param   style   layout of the file
+     * @throws  IOException if the file can't be written
+     */
+    public void parse(JsonFile file, JsonStyle style) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file.getName() + ".json"),
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(file, channel, style);
+        }
+    }
+
+    /**
+     * Writes given file to given stream. The stream is flushed but not
+     * closed.
+     *
+     * @param   file    file to write
+     * @param   out     stream to write to
+     * @param   style   layout to use
+     * @throws  IOException if writing fails
+     */
+    public void write(JsonFile file, OutputStream out, JsonStyle style) throws IOException {
+        write(file, Channels.newChannel(out), style);
+        out.flush();
+    }
+
+    /**
+     * Writes given file to given channel. The channel is not closed.
+     *
+     * @param   file        file to write
+     * @param   channel     channel to write to
+     * @param   style       layout to use
+     * @throws  IOException if writing fails
+     */
+    public void write(JsonFile file, WritableByteChannel channel, JsonStyle style) throws IOException {
+        List<JsonUnit> units = file.getUnits();
+
+        if (pool.getParallelism() == 1 || !hasLargeArray(units)) {
+            file.writeTo(channel, style);
+            return;
+        }
+
+        Utf8Output out = new Utf8Output(channel);
+        out.append('{');
+
+        for (int i = 0; i < units.size(); i++) {
+            if (i > 0) {
+                out.append(style.separator);
+            }
+
+            style.newline(out, 1);
+            JsonUnit unit = units.get(i);
+
+            if (isLarge(unit)) {
+                ArrayUnit<?> array = (ArrayUnit<?>) unit;
+                byte[] encoded = style.name(out, array.key, array.encodedKey);
+
+                if (encoded != array.encodedKey) {
+                    array.encodedKey = encoded;
+                }
+
+                out.append('[');
+                out.drain();
+                writeValues(array, channel, style);
+                style.newline(out, 1);
+                out.append(']');
+            } else {
+                unit.writeTo(out, style, 1);
+            }
+        }
+
+        if (!units.isEmpty()) {
+            style.newline(out, 0);
+        }
+
+        out.append('}');
+
+        if (style.multiline) {
+            out.append('\n');
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Is any of given units an array worth rendering in parallel.
+     *
+     * @param   units   units to check
+     * @return          is there a large array
+     */
+    boolean hasLargeArray(List<JsonUnit> units) {
+        for (JsonUnit unit : units) {
+            if (isLarge(unit)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Is given unit an array of JsonFiles worth rendering in parallel.
+     *
+     * @param   unit    unit to check
+     * @return          is the unit a large array
+     */
+    boolean isLarge(JsonUnit unit) {
+        if (!(unit instanceof ArrayUnit)) {
+            return false;
+        }
+
+        List<?> values = ((ArrayUnit<?>) unit).getValues();
+
+        return values != null && values.size() >= threshold && values.get(0) instanceof JsonFile;
+    }
+
+    /**
+     * Renders the values of given array in waves and writes them in order.
+     *
+     * @param   array       array to render
+     * @param   channel     channel to write to
+     * @param   style       layout to use
+     * @throws  IOException if writing fails
+     */
+    void writeValues(ArrayUnit<?> array, WritableByteChannel channel, JsonStyle style) throws IOException {
+        int size = array.getValues().size();
+        boolean onePerLine = array.isOnePerLine(style);
+        int wave = pool.getParallelism() * 2;
+        Utf8Output[] outputs = new Utf8Output[wave];
+        ByteBuffer[] buffers = new ByteBuffer[wave];
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[wave];
+
+        for (int i = 0; i < wave; i++) {
+            outputs[i] = new Utf8Output(CHUNK_SIZE * 64);
+        }
+
+        for (int start = 0; start < size; start += wave * CHUNK_SIZE) {
+            int chunks = 0;
+
+            for (int from = start; from < size && chunks < wave; from += CHUNK_SIZE) {
+                Utf8Output output = outputs[chunks];
+                int to = Math.min(from + CHUNK_SIZE, size);
+                int first = from;
+                tasks[chunks++] = pool.submit(() -> {
+                    output.pos = 0;
+
+                    try {
+                        array.writeValues(output, style, 1, onePerLine, first, to);
+                    } catch (IOException e) {
+                        // Writing to memory never throws IOException.
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+
+            for (int i = 0; i < chunks; i++) {
+                tasks[i].join();
+                buffers[i] = ByteBuffer.wrap(outputs[i].buffer, 0, outputs[i].pos);
+            }
+
+            write(channel, buffers, chunks);
+        }
+    }
+
+    /**
+     * Writes given buffers in order, with gathering writes if the channel
+     * supports them.
+     *
+     * @param   channel     channel to write to
+     * @param   buffers     buffers to write
+     * @param   count       number of buffers to write
+     * @throws  IOException if writing fails
+     */
+    void write(WritableByteChannel channel, ByteBuffer[] buffers, int count) throws IOException {
+        if (channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gathering = (GatheringByteChannel) channel;
+
+            for (int first = 0; first < count; ) {
+                gathering.write(buffers, first, count - first);
+
+                while (first < count && !buffers[first].hasRemaining()) {
+                    first++;
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                while (buffers[i].hasRemaining()) {
+                    channel.write(buffers[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Shuts down the pool if it was created by this writer.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+}
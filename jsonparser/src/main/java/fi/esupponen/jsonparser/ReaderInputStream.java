@@ -0,0 +1,138 @@
+package fi.esupponen.jsonparser;
+
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes the characters of a Reader into UTF-8 bytes.
+ *
+ * Lets JsonReader work on bytes only, even when the input is given as
+ * characters. Both buffers have a fixed size.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+class ReaderInputStream extends InputStream {
+
+    /**
+     * Source of the characters.
+     */
+    Reader reader;
+
+    /**
+     * Encoder that turns characters into UTF-8.
+     */
+    CharsetEncoder encoder;
+
+    /**
+     * Characters read but not yet encoded.
+     */
+    CharBuffer chars;
+
+    /**
+     * Encoded bytes not yet returned.
+     */
+    ByteBuffer bytes;
+
+    /**
+     * Has the reader returned end of stream.
+     */
+    boolean endOfInput;
+
+    /**
+     * Has the encoder been flushed.
+     */
+    boolean done;
+
+    /**
+     * Constructs a stream reading from given reader.
+     *
+     * @param   reader  source of the characters
+     */
+    ReaderInputStream(Reader reader) {
+        this.reader = reader;
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(4096);
+        this.bytes = ByteBuffer.allocate(8192);
+        // Buffer casts keep the calls linkable on Java 8.
+        ((Buffer) this.chars).flip();
+        ((Buffer) this.bytes).flip();
+    }
+
+    /**
+     * Encodes more characters into bytes.
+     *
+     * @return  were there any bytes left
+     * @throws  IOException if reading fails
+     */
+    private boolean fill() throws IOException {
+        ((Buffer) bytes).clear();
+
+        while (bytes.position() == 0 && !done) {
+            if (!endOfInput) {
+                chars.compact();
+                int count = reader.read(chars.array(), chars.position(), chars.remaining());
+
+                if (count < 0) {
+                    endOfInput = true;
+                } else {
+                    ((Buffer) chars).position(chars.position() + count);
+                }
+
+                ((Buffer) chars).flip();
+            }
+
+            if (endOfInput) {
+                if (encoder.encode(chars, bytes, true).isUnderflow()
+                        && encoder.flush(bytes).isUnderflow()) {
+                    done = true;
+                }
+            } else {
+                encoder.encode(chars, bytes, false);
+            }
+        }
+
+        ((Buffer) bytes).flip();
+
+        return bytes.hasRemaining();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!bytes.hasRemaining() && !fill()) {
+            return -1;
+        }
+
+        return bytes.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!bytes.hasRemaining() && !fill()) {
+            return -1;
+        }
+
+        int count = Math.min(len, bytes.remaining());
+        bytes.get(b, off, count);
+
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
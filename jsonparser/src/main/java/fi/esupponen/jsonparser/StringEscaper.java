@@ -0,0 +1,96 @@
+package fi.esupponen.jsonparser;
+
+import java.io.IOException;
+
+/**
+ * Writes strings as quoted JSON strings escaped as RFC 8259 requires.
+ *
+ * Quotes, backslashes and control characters are escaped, everything else
+ * is written as it is. Characters are checked against a lookup table, and
+ * runs of characters that need no escaping are appended in one piece. An
+ * Utf8Output encodes the string itself in one pass, copying clean ASCII
+ * straight into its buffer.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+final class StringEscaper {
+
+    /**
+     * Character following the backslash for every ASCII character that
+     * must be escaped, 'u' for the hexadecimal form, and 0 for characters
+     * written as they are.
+     */
+    static final byte[] ESCAPES = new byte[128];
+
+    /**
+     * Digits of the hexadecimal form.
+     */
+    static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = 'u';
+        }
+
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+    }
+
+    private StringEscaper() {
+    }
+
+    /**
+     * Appends a string in quotes, escaping what must be escaped.
+     *
+     * @param   out     output to append to
+     * @param   value   string to append
+     * @throws  IOException if appending fails
+     */
+    static void write(Appendable out, String value) throws IOException {
+        if (out instanceof Utf8Output) {
+            ((Utf8Output) out).writeString(value);
+            return;
+        }
+
+        out.append('"');
+        int length = value.length();
+        int start = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+
+            if (c < 0x80 && ESCAPES[c] != 0) {
+                out.append(value, start, i);
+                escape(out, c);
+                start = i + 1;
+            }
+        }
+
+        out.append(value, start, length);
+        out.append('"');
+    }
+
+    /**
+     * Appends the escaped form of an ASCII character.
+     *
+     * @param   out     output to append to
+     * @param   c       character that must be escaped
+     * @throws  IOException if appending fails
+     */
+    static void escape(Appendable out, char c) throws IOException {
+        byte escape = ESCAPES[c];
+        out.append('\\');
+
+        if (escape == 'u') {
+            out.append('u').append('0').append('0').append(HEX[c >> 4]).append(HEX[c & 0xF]);
+        } else {
+            out.append((char) escape);
+        }
+    }
+}
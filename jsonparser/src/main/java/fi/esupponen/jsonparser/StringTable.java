@@ -0,0 +1,96 @@
+package fi.esupponen.jsonparser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded table of canonical strings looked up by their raw UTF-8 bytes.
+ *
+ * The table is direct mapped: every hash has one slot, and a new string
+ * replaces whatever was in its slot. Memory use is fixed by the size, and
+ * a run of records with the same keys keeps hitting the same slots. A hit
+ * compares the bytes in the buffer to the stored bytes and returns the
+ * stored string, so nothing is decoded or allocated.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+final class StringTable {
+
+    /**
+     * Longest string in bytes that is stored.
+     */
+    static final int MAX_LENGTH = 64;
+
+    /**
+     * Raw bytes of the strings by slot.
+     */
+    byte[][] bytes;
+
+    /**
+     * Canonical strings by slot.
+     */
+    String[] strings;
+
+    /**
+     * Number of slots minus one.
+     */
+    int mask;
+
+    /**
+     * Constructs a table.
+     *
+     * @param   size    number of slots, a power of two
+     */
+    StringTable(int size) {
+        this.bytes = new byte[size][];
+        this.strings = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the string whose bytes are in given part of the buffer.
+     *
+     * @param   buffer  buffer holding the bytes
+     * @param   start   position of the first byte
+     * @param   end     position after the last byte
+     * @param   hash    hash of the bytes
+     * @return          canonical string, or null if it is not in the table
+     */
+    String get(ByteBuffer buffer, int start, int end, int hash) {
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        byte[] stored = bytes[slot];
+
+        if (stored == null || stored.length != end - start) {
+            return null;
+        }
+
+        for (int i = 0; i < stored.length; i++) {
+            if (stored[i] != buffer.get(start + i)) {
+                return null;
+            }
+        }
+
+        return strings[slot];
+    }
+
+    /**
+     * Stores a string with its bytes.
+     *
+     * @param   buffer  buffer holding the bytes
+     * @param   start   position of the first byte
+     * @param   end     position after the last byte
+     * @param   hash    hash of the bytes
+     * @param   string  decoded string
+     */
+    void put(ByteBuffer buffer, int start, int end, int hash, String string) {
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        byte[] stored = new byte[end - start];
+
+        for (int i = 0; i < stored.length; i++) {
+            stored[i] = buffer.get(start + i);
+        }
+
+        bytes[slot] = stored;
+        strings[slot] = string;
+    }
+}
@@ -1,10 +1,10 @@
 package fi.esupponen.jsonparser;
 
-import java.io.PrintWriter;
+import java.io.IOException;
 
 /**
  * @author      Essi Supponen [essi.supponen@cs.tamk.fi]
- * @version     2018-1217
+ * @version     2026-1018
  * @since       2018-1120
  */
 public class StringUnit implements JsonUnit {
@@ -14,6 +14,19 @@ public class StringUnit implements JsonUnit {
      */
     String key;
 
+    /**
+     * The key in quotes as UTF-8, copied as is to byte outputs. Encoded
+     * when the unit is first written to one. Volatile, because several
+     * threads may write the same unit.
+     */
+    volatile byte[] encodedKey;
+
+    /**
+     * Index of the file or object the unit was added to, kept up to date
+     * by setKey().
+     */
+    KeyIndex owner;
+
     /**
      * The value of the unit.
      */
@@ -44,20 +57,29 @@ public class StringUnit implements JsonUnit {
      * Prints the key and the value to the console.
      */
     public void jsonPrint() {
-        System.out.print("\"" + key + "\": \"" + value + "\"");
+        System.out.print(toString());
     }
 
     /**
-     * Writes the expression of this unit to given json-file.
-     * 
-     * Uses leadingSpaces to have proper indentation. Prints key inside
-     * quotation marks and then value.
+     * Appends the key and the value to given output.
      *
-     * @param   leadingSpaces   indentation
-     * @param   writer          json-file   
+     * @param   out     output to append to
+     * @param   style   layout to use
+     * @param   depth   nesting level of the unit
+     * @throws  IOException if appending fails
      */
-    public void jsonPrint(String leadingSpaces, PrintWriter writer) {
-        writer.print(leadingSpaces + "\"" + key + "\": \"" + value + "\"");
+    public void writeTo(Appendable out, JsonStyle style, int depth) throws IOException {
+        byte[] encoded = style.name(out, key, encodedKey);
+
+        if (encoded != encodedKey) {
+            encodedKey = encoded;
+        }
+
+        if (value == null) {
+            out.append("null");
+        } else {
+            StringEscaper.write(out, value);
+        }
     }
 
     /**
@@ -67,15 +89,10 @@ public class StringUnit implements JsonUnit {
      */
     @Override
     public String toString() {
-        String str = "\"" + key + "\": ";
-
-        if (value == null) {
-            str += "null";
-        } else {
-            str += "\"" + value + "\"";
-        }
+        StringBuilder builder = new StringBuilder();
+        writeTo(builder);
 
-        return str;
+        return builder.toString();
     }
 
     /**
@@ -99,10 +116,15 @@ public class StringUnit implements JsonUnit {
     /**
      * Sets a new key.
      *
+     * A file or an object the unit has been added to finds it by the new
+     * key, and the key must not already be used there.
+     *
      * @param key       new key
      */
     public void setKey(String key) {
+        KeyIndex.rename(owner, this, this.key, key);
         this.key = key;
+        this.encodedKey = null;
     }
 
     /**
@@ -0,0 +1,345 @@
+package fi.esupponen.jsonparser;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Appendable that encodes characters straight to UTF-8 bytes.
+ *
+ * Bytes are collected to one buffer that is written to the stream or
+ * channel in large blocks whenever it fills up. An output without a stream
+ * or a channel keeps everything in memory and grows its buffer instead.
+ * Nothing is synchronized and errors are thrown as they happen. Unpaired
+ * surrogates are written as '?'.
+ *
+ * @version     2026-1018
+ * @since       2026-1018
+ */
+class Utf8Output implements Appendable, Flushable {
+
+    /**
+     * Size of the output buffer.
+     */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Stream to write to, or null if writing to a channel.
+     */
+    OutputStream stream;
+
+    /**
+     * Channel to write to, or null if writing to a stream.
+     */
+    WritableByteChannel channel;
+
+    /**
+     * Output buffer.
+     */
+    byte[] buffer;
+
+    /**
+     * Buffer wrapped for channel writes.
+     */
+    ByteBuffer wrapper;
+
+    /**
+     * Number of bytes in buffer.
+     */
+    int pos;
+
+    /**
+     * High surrogate waiting for its pair, or 0.
+     */
+    char highSurrogate;
+
+    /**
+     * Can frozen units copy their cached bytes to this output.
+     */
+    boolean cacheable = true;
+
+    /**
+     * Constructs an output writing to given stream.
+     *
+     * @param   stream  stream to write to
+     */
+    Utf8Output(OutputStream stream) {
+        this.stream = stream;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Constructs an output writing to given channel.
+     *
+     * @param   channel     channel to write to
+     */
+    Utf8Output(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.wrapper = ByteBuffer.wrap(buffer);
+    }
+
+    /**
+     * Constructs an output keeping the bytes in memory.
+     *
+     * @param   capacity    initial size of the buffer
+     */
+    Utf8Output(int capacity) {
+        this.buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Writes the buffered bytes to the stream or channel.
+     *
+     * An output keeping the bytes in memory doubles its buffer instead.
+     *
+     * @throws  IOException if writing fails
+     */
+    void drain() throws IOException {
+        if (stream == null && channel == null) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            return;
+        }
+
+        if (stream != null) {
+            stream.write(buffer, 0, pos);
+        } else {
+            // Cast to Buffer, so the calls link on Java 8 as well.
+            ((Buffer) wrapper).clear();
+            ((Buffer) wrapper).limit(pos);
+
+            while (wrapper.hasRemaining()) {
+                channel.write(wrapper);
+            }
+        }
+
+        pos = 0;
+    }
+
+    /**
+     * Copies given bytes to the output.
+     *
+     * @param   bytes   bytes to copy
+     * @param   off     position of the first byte
+     * @param   len     number of bytes
+     * @throws  IOException if writing fails
+     */
+    void write(byte[] bytes, int off, int len) throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            writeCodePoint('?');
+        }
+
+        while (len > buffer.length - pos && stream == null && channel == null) {
+            drain();
+        }
+
+        if (len > buffer.length - pos) {
+            drain();
+
+            if (len > buffer.length) {
+                if (stream != null) {
+                    stream.write(bytes, off, len);
+                } else {
+                    ByteBuffer big = ByteBuffer.wrap(bytes, off, len);
+
+                    while (big.hasRemaining()) {
+                        channel.write(big);
+                    }
+                }
+
+                return;
+            }
+        }
+
+        System.arraycopy(bytes, off, buffer, pos, len);
+        pos += len;
+    }
+
+    /**
+     * Encodes a code point.
+     *
+     * @param   codePoint   code point to encode
+     * @throws  IOException if writing fails
+     */
+    void writeCodePoint(int codePoint) throws IOException {
+        if (pos + 4 > buffer.length) {
+            drain();
+        }
+
+        if (codePoint < 0x80) {
+            buffer[pos++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            buffer[pos++] = (byte) (0xC0 | (codePoint >> 6));
+            buffer[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            buffer[pos++] = (byte) (0xE0 | (codePoint >> 12));
+            buffer[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            buffer[pos++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    /**
+     * Encodes a character that is not ASCII or follows a high surrogate.
+     *
+     * @param   c   character to encode
+     * @throws  IOException if writing fails
+     */
+    void writeChar(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+
+            if (Character.isLowSurrogate(c)) {
+                writeCodePoint(Character.toCodePoint(high, c));
+                return;
+            }
+
+            writeCodePoint('?');
+        }
+
+        if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            writeCodePoint('?');
+        } else {
+            writeCodePoint(c);
+        }
+    }
+
+    @Override
+    public Utf8Output append(char c) throws IOException {
+        if (c < 0x80 && highSurrogate == 0) {
+            if (pos == buffer.length) {
+                drain();
+            }
+
+            buffer[pos++] = (byte) c;
+        } else {
+            writeChar(c);
+        }
+
+        return this;
+    }
+
+    @Override
+    public Utf8Output append(CharSequence csq) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Utf8Output append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+
+        for (int i = start; i < end; i++) {
+            char c = csq.charAt(i);
+
+            if (c < 0x80 && highSurrogate == 0) {
+                if (pos == buffer.length) {
+                    drain();
+                }
+
+                buffer[pos++] = (byte) c;
+            } else {
+                writeChar(c);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Encodes a string in quotes, escaping what must be escaped.
+     *
+     * Runs of ASCII that need no escaping are copied straight into the
+     * buffer, checking only the lookup table for every character.
+     *
+     * @param   value   string to encode
+     * @throws  IOException if writing fails
+     */
+    void writeString(String value) throws IOException {
+        append('"');
+        int length = value.length();
+        int i = 0;
+
+        while (i < length) {
+            if (highSurrogate == 0) {
+                if (pos == buffer.length) {
+                    drain();
+                }
+
+                byte[] bytes = buffer;
+                int p = pos;
+                int stop = i + Math.min(length - i, bytes.length - p);
+
+                while (i < stop) {
+                    char c = value.charAt(i);
+
+                    if (c >= 0x80 || StringEscaper.ESCAPES[c] != 0) {
+                        break;
+                    }
+
+                    bytes[p++] = (byte) c;
+                    i++;
+                }
+
+                pos = p;
+
+                if (i == stop) {
+                    continue;
+                }
+            }
+
+            char c = value.charAt(i++);
+
+            if (c >= 0x80 || StringEscaper.ESCAPES[c] == 0) {
+                writeChar(c);
+            } else {
+                if (highSurrogate != 0) {
+                    highSurrogate = 0;
+                    writeCodePoint('?');
+                }
+
+                StringEscaper.escape(this, c);
+            }
+        }
+
+        append('"');
+    }
+
+    /**
+     * Writes everything buffered and flushes the stream. Does nothing else
+     * for an output keeping the bytes in memory.
+     *
+     * @throws  IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            writeCodePoint('?');
+        }
+
+        if (stream != null) {
+            drain();
+            stream.flush();
+        } else if (channel != null) {
+            drain();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class AutoSaverTest {
+    @Test
+    public void testCoalescing() throws Exception {
+        Path directory = Files.createTempDirectory("autosave");
+        Path path = directory.resolve("list.json");
+        ConcurrentJsonFile file = new ConcurrentJsonFile("list");
+        AutoSaver saver = new AutoSaver(file, path, 1, TimeUnit.HOURS);
+
+        try {
+            for (int i = 0; i < 1000; i++) {
+                file.add("item" + i, "amount " + i);
+                saver.changed();
+            }
+
+            Assert.assertEquals(saver.getSaveCount(), 0);
+            saver.close();
+            Assert.assertEquals(saver.getSaveCount(), 1);
+
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            file.writeTo(expected);
+            Assert.assertArrayEquals(Files.readAllBytes(path), expected.toByteArray());
+            Assert.assertFalse(Files.exists(directory.resolve("list.json.tmp")));
+
+            saver.close();
+            Assert.assertEquals(saver.getSaveCount(), 1);
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testBackgroundSave() throws Exception {
+        Path directory = Files.createTempDirectory("autosave");
+        Path path = directory.resolve("list.json");
+        ConcurrentJsonFile file = new ConcurrentJsonFile("list");
+        file.add("milk", "1 l");
+        Files.write(path, "old".getBytes("UTF-8"));
+
+        try (AutoSaver saver = new AutoSaver(file, path, 10, TimeUnit.MILLISECONDS)) {
+            saver.changed();
+
+            for (int i = 0; i < 500 && saver.getSaveCount() == 0; i++) {
+                Thread.sleep(10);
+            }
+
+            Assert.assertEquals(saver.getSaveCount(), 1);
+            Assert.assertEquals(new String(Files.readAllBytes(path), "UTF-8"), "{\n  \"milk\": \"1 l\"\n}\n");
+        } finally {
+            Files.delete(path);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testFailedSave() throws Exception {
+        Path directory = Files.createTempDirectory("autosave");
+        Path path = directory.resolve("missing").resolve("list.json");
+        JsonFile file = new JsonFile("list");
+        AutoSaver saver = new AutoSaver(file, path, 1, TimeUnit.HOURS);
+        List<Exception> errors = new ArrayList<Exception>();
+        saver.setErrorHandler(errors::add);
+        saver.changed();
+
+        try {
+            saver.flush();
+            Assert.fail("Saving to a missing directory should fail");
+        } catch (IOException e) {
+            // The change stays unsaved.
+        }
+
+        Files.createDirectory(directory.resolve("missing"));
+
+        try {
+            saver.close();
+            Assert.assertEquals(saver.getSaveCount(), 1);
+            Assert.assertTrue(errors.isEmpty());
+        } finally {
+            Files.delete(path);
+            Files.delete(directory.resolve("missing"));
+            Files.delete(directory);
+        }
+    }
+}
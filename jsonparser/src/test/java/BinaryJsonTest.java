@@ -0,0 +1,122 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BinaryJsonTest {
+    @Test
+    public void testRoundTrip() throws Exception {
+        JsonFile nested = new JsonFile("nested");
+        nested.add("name", "inner \"quoted\" \u00e4\ud83d\ude00");
+        nested.add("count", 3);
+
+        List<JsonUnit> members = new ArrayList<JsonUnit>();
+        members.add(new NumberUnit("pi", 3.141592653589793));
+        members.add(new StringUnit("nothing"));
+
+        JsonFile file = new JsonFile("document");
+        file.add("text", "plain");
+        file.add("missing", (String) null);
+        file.add("yes", true);
+        file.add("no", false);
+        file.add("integer", -42);
+        file.add("fraction", 0.1);
+        file.add("negativeZero", -0.0);
+        file.add("huge", 1e300);
+        file.add("object", members);
+        file.add(new ObjectUnit("nullObject", null));
+        file.addArray("mixed", Arrays.asList("s", 1.5, 7L, 2, true, null, nested, -0.0));
+        file.addArray("doubles", 1.0, -2.5, Double.MAX_VALUE, Double.MIN_VALUE);
+        file.add(new LongArrayUnit("longs", Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE));
+        file.addArray("booleans", true, false, true, true, false, false, true, false, true);
+        file.addArray("empty", new String[0]);
+
+        byte[] bytes = BinaryJson.encode(file);
+        JsonFile decoded = BinaryJson.decode("document", bytes);
+        Assert.assertEquals(decoded.toString(), file.toString());
+        Assert.assertEquals(decoded.getName(), "document");
+        Assert.assertEquals(((ArrayUnit<?>) decoded.get("mixed")).getValues().get(2), 7L);
+        Assert.assertEquals(((ArrayUnit<?>) decoded.get("mixed")).getValues().get(1), 1.5);
+        Assert.assertEquals(((LongArrayUnit) decoded.get("longs")).get(0), Long.MIN_VALUE);
+        Assert.assertEquals(((BooleanArrayUnit) decoded.get("booleans")).size(), 9);
+        Assert.assertEquals(1 / ((NumberUnit) decoded.get("negativeZero")).getValue(), Double.NEGATIVE_INFINITY, 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryJson.encode(file, out);
+        Assert.assertArrayEquals(out.toByteArray(), bytes);
+        Assert.assertEquals(BinaryJson.decode("document", new ByteArrayInputStream(bytes)).toString(), file.toString());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+        direct.put((byte) 9).put(bytes).flip();
+        direct.get();
+        Assert.assertEquals(BinaryJson.decode("document", direct).toString(), file.toString());
+        Assert.assertEquals(direct.position(), 1);
+    }
+
+    @Test
+    public void testSameAsText() throws Exception {
+        StringBuilder json = new StringBuilder("{\"records\": [");
+
+        for (int i = 0; i < 100; i++) {
+            json.append(i == 0 ? "" : ", ")
+                .append("{\"id\": ").append(i)
+                .append(", \"name\": \"item ").append(i)
+                .append("\", \"price\": ").append(i * 0.25)
+                .append(", \"tags\": [\"a\", \"b\"], \"flags\": [true, false]}");
+        }
+
+        json.append("], \"values\": [1.5, 2, 1e-7]}");
+        byte[] text = json.toString().getBytes("UTF-8");
+        JsonFile file;
+
+        try (JsonReader reader = new JsonReader(new ByteArrayInputStream(text))) {
+            file = reader.readFile("records");
+        }
+
+        byte[] bytes = BinaryJson.encode(file);
+        Assert.assertEquals(BinaryJson.decode("records", bytes).toString(), file.toString());
+
+        // Every key is spelled out once, so the records take much less room.
+        Assert.assertTrue(bytes.length < text.length / 2);
+    }
+
+    @Test
+    public void testBadInput() {
+        JsonFile file = new JsonFile("bad");
+        file.add("key", "value");
+        byte[] bytes = BinaryJson.encode(file);
+
+        for (int length = 0; length < bytes.length; length++) {
+            try {
+                BinaryJson.decode("bad", Arrays.copyOf(bytes, length));
+                Assert.fail("Truncated input should fail");
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getMessage().contains("at offset"));
+            }
+        }
+
+        byte[] huge = {'J', 'B', 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+
+        try {
+            BinaryJson.decode("bad", huge);
+            Assert.fail("Too large count should fail");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Count"));
+        }
+
+        JsonFile custom = new JsonFile("custom");
+        custom.addArray("objects", Arrays.asList(new Object()));
+
+        try {
+            BinaryJson.encode(custom);
+            Assert.fail("Unknown array values can't be encoded");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Can't encode"));
+        }
+    }
+}
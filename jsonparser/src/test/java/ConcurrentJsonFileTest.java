@@ -0,0 +1,75 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrentJsonFileTest {
+    @Test
+    public void testSameAsJsonFile() {
+        JsonFile plain = new JsonFile("config");
+        plain.add("a", "first");
+        plain.add("b", 2);
+        plain.addArray("c", "x", "y");
+
+        ConcurrentJsonFile file = new ConcurrentJsonFile(plain);
+        Assert.assertEquals(file.toString(), plain.toString());
+        Assert.assertEquals(((StringUnit) file.get("a")).getValue(), "first");
+        Assert.assertTrue(file.alreadyUsed("b"));
+
+        Assert.assertNotNull(file.put(new StringUnit("a", "changed")));
+        Assert.assertNull(file.put(new BooleanUnit("d", true)));
+        Assert.assertEquals(file.toString(), "{\"a\": \"changed\", \"b\": 2, \"c\": [\"x\", \"y\"], \"d\": true}");
+
+        List<JsonUnit> snapshot = file.getUnits();
+        Assert.assertEquals(file.remove(1).getKey(), "b");
+        Assert.assertEquals(file.remove("d").getKey(), "d");
+        Assert.assertNull(file.remove("d"));
+        Assert.assertEquals(snapshot.size(), 4);
+        Assert.assertEquals(file.toString(), "{\"a\": \"changed\", \"c\": [\"x\", \"y\"]}");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testDuplicateKey() {
+        ConcurrentJsonFile file = new ConcurrentJsonFile("config");
+        file.add("a", 1);
+        file.add("a", 2);
+    }
+
+    @Test
+    public void testConcurrentChanges() throws Exception {
+        ConcurrentJsonFile file = new ConcurrentJsonFile("config");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Future<?>[] futures = new Future<?>[4];
+
+        for (int t = 0; t < futures.length; t++) {
+            int thread = t;
+            futures[t] = executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    file.add("key" + thread + "-" + i, i);
+
+                    if (i % 2 == 1) {
+                        file.remove("key" + thread + "-" + (i - 1));
+                    }
+
+                    // A snapshot taken after a change must show it.
+                    Assert.assertTrue(file.getUnits().contains(file.get("key" + thread + "-" + i)));
+                }
+            });
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        Assert.assertEquals(file.size(), 2000);
+        Assert.assertEquals(file.getUnits().size(), 2000);
+        Assert.assertNotNull(file.get("key3-999"));
+        Assert.assertNull(file.get("key3-998"));
+    }
+}
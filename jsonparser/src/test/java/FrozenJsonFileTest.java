@@ -0,0 +1,77 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class FrozenJsonFileTest {
+    JsonFile file() {
+        JsonFile file = new JsonFile("config");
+        file.add("name", "service");
+        file.add("port", 8080);
+        file.add("settings", Arrays.asList(new StringUnit("mode", "fast"), new BooleanUnit("debug", false)));
+        file.addArray("hosts", "a", "b");
+        file.addArray("weights", 0.5, 1.5);
+        JsonFile record = new JsonFile("record");
+        record.add("id", 1);
+        file.addArray("records", record);
+
+        return file;
+    }
+
+    String bytes(JsonFile file, JsonStyle style) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        file.writeTo(out, style);
+
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testFreeze() throws IOException {
+        JsonFile file = file();
+        FrozenJsonFile frozen = file.freeze();
+        Assert.assertEquals(frozen.toString(), file.toString());
+        Assert.assertEquals(frozen.getName(), "config");
+        Assert.assertSame(frozen.freeze(), frozen);
+
+        // The copy doesn't follow the original.
+        ((StringUnit) file.get("name")).setValue("changed");
+        Assert.assertEquals(((StringUnit) frozen.get("name")).getValue(), "service");
+
+        // Cached bytes are the same as rendered ones, in every style.
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(bytes(frozen, JsonStyle.PRETTY), bytes(file().freeze(), JsonStyle.PRETTY));
+            Assert.assertEquals(bytes(frozen, JsonStyle.MINIFIED), bytes(file(), JsonStyle.MINIFIED));
+        }
+    }
+
+    @Test
+    public void testWith() throws IOException {
+        FrozenJsonFile frozen = file().freeze();
+        FrozenJsonFile changed = frozen.with("port", 9090).with("extra", true).without("hosts");
+
+        Assert.assertEquals(frozen.toString(), file().toString());
+        Assert.assertSame(changed.get("settings"), frozen.get("settings"));
+        Assert.assertSame(changed.get("records"), frozen.get("records"));
+        Assert.assertEquals(changed.getUnits().get(1).toString(), "\"port\": 9090");
+        Assert.assertEquals(changed.getUnits().get(5).getKey(), "extra");
+        Assert.assertNull(changed.get("hosts"));
+
+        Assert.assertEquals(bytes(changed, JsonStyle.MINIFIED), "{\"name\":\"service\",\"port\":9090,"
+                + "\"settings\":{\"mode\":\"fast\",\"debug\":false},\"weights\":[0.5,1.5],"
+                + "\"records\":[{\"id\":1}],\"extra\":true}");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnitsCantChange() {
+        FrozenJsonFile frozen = file().freeze();
+        ((StringUnit) frozen.get("name")).setValue("changed");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testFileCantChange() {
+        file().freeze().add("new", 1);
+    }
+}
@@ -64,6 +64,27 @@ public class JsonBasicsTest {
         Assert.assertEquals(ou.toString(), "\"object\": {\"boolean\": true, \"PI\": 3.14159265, \"string\": \"string\"}");
     }
 
+    @Test
+    public void testObjectUnitRemove() {
+        ObjectUnit ou = new ObjectUnit("object", null);
+        Assert.assertNull(ou.remove("missing"));
+        ou.add(new BooleanUnit("boolean", true));
+        ou.add(new NumberUnit("PI", 3.14159265));
+        ou.add(new StringUnit("string", "string"));
+
+        Assert.assertEquals(ou.remove("PI").getKey(), "PI");
+        Assert.assertNull(ou.get("PI"));
+        Assert.assertEquals(ou.remove(0).getKey(), "boolean");
+        Assert.assertFalse(ou.alreadyUsed("boolean"));
+        Assert.assertEquals(ou.getValues().size(), 1);
+        ou.add(new NumberUnit("PI", 3));
+        Assert.assertEquals(ou.toString(), "\"object\": {\"string\": \"string\", \"PI\": 3}");
+
+        ou.clear();
+        Assert.assertNull(ou.get("string"));
+        Assert.assertEquals(ou.toString(), "\"object\": {}");
+    }
+
     @Test
     public void testJsonFile() {
         JsonFile file = new JsonFile("file");
@@ -73,4 +94,53 @@ public class JsonBasicsTest {
         file.add("integer", 3);
         Assert.assertEquals(file.toString(),"{\"string\": \"string\", \"boolean\": true, \"double\": 3.24, \"integer\": 3}");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testWriteTo() {
+        LinkedList<Object> listMixed = new LinkedList<>();
+        listMixed.add("string");
+        listMixed.add(new Double(2.0));
+        listMixed.add(null);
+        listMixed.add(Boolean.TRUE);
+        StringBuilder builder = new StringBuilder("log: ");
+        new ArrayUnit<>("mixed", listMixed).writeTo(builder);
+        Assert.assertEquals(builder.toString(), "log: \"mixed\": [\"string\", 2, null, true]");
+    }
+
+    @Test
+    public void testPrimitiveArrayUnits() {
+        DoubleArrayUnit dau = new DoubleArrayUnit("doubles");
+        Assert.assertEquals(dau.toString(), "\"doubles\": []");
+        dau.add(13.0);
+        dau.addAll(3.13, -2);
+        Assert.assertEquals(dau.toString(), "\"doubles\": [13, 3.13, -2]");
+
+        LongArrayUnit lau = new LongArrayUnit("longs", 1, Long.MAX_VALUE);
+        Assert.assertEquals(lau.toString(), "\"longs\": [1, 9223372036854775807]");
+
+        BooleanArrayUnit bau = new BooleanArrayUnit("booleans");
+        for (int i = 0; i < 130; i++) {
+            bau.add(i % 3 == 0);
+        }
+        Assert.assertEquals(bau.size(), 130);
+        Assert.assertTrue(bau.get(129));
+        Assert.assertFalse(bau.get(128));
+        bau.set(128, true);
+        Assert.assertTrue(bau.get(128));
+        Assert.assertEquals(new BooleanArrayUnit("b", true, false).toString(), "\"b\": [true, false]");
+    }
+
+    @Test
+    public void testNumberFormatting() {
+        NumberUnit nu = new NumberUnit("number", 3000000000.0);
+        Assert.assertEquals(nu.toString(), "\"number\": 3000000000");
+        nu.setValue(-0.00001);
+        Assert.assertEquals(nu.toString(), "\"number\": -0.00001");
+        nu.setValue(0.1 + 0.2);
+        Assert.assertEquals(nu.toString(), "\"number\": 0.30000000000000004");
+        nu.setValue(1e300);
+        Assert.assertEquals(Double.parseDouble(nu.toString().substring(10)), 1e300, 0);
+        nu.setValue(Double.NaN);
+        Assert.assertEquals(nu.toString(), "\"number\": null");
+    }
+}
@@ -2,6 +2,21 @@ import org.junit.Test;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class JsonFileTest {
     JsonFile testFile;
@@ -30,6 +45,18 @@ public class JsonFileTest {
         Assert.assertFalse("Key 'key' should not be found", testFile.alreadyUsed("key"));
     }
 
+    @Test
+    public void testGetAndRemove() {
+        Assert.assertEquals(((StringUnit) testFile.get("string")).getValue(), "merkkijono");
+        Assert.assertNull(testFile.get("key"));
+        testFile.remove("string");
+        Assert.assertFalse("Key 'string' should not be found", testFile.alreadyUsed("string"));
+        testFile.remove(0);
+        Assert.assertFalse("Key 'boolean' should not be found", testFile.alreadyUsed("boolean"));
+        testFile.add("boolean", false);
+        Assert.assertEquals(testFile.getUnits().get(testFile.getUnits().size() - 1), testFile.get("boolean"));
+    }
+
     @Test(expected = Exception.class)
     public void testAdditionFailed() {
         testFile.add("integer", false);
@@ -44,4 +71,202 @@ public class JsonFileTest {
     public void testJsonfileAdditionFailed() {
         testFile.add(new JsonFile("fails"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStyles() throws IOException {
+        JsonFile file = new JsonFile("styles");
+        file.add("a", 1);
+        file.addArray("b", "x", "y");
+        JsonFile element = new JsonFile("element");
+        element.add("c", true);
+        file.addArray("d", element);
+
+        StringBuilder minified = new StringBuilder();
+        file.writeTo(minified, JsonStyle.MINIFIED, 0);
+        Assert.assertEquals(minified.toString(), "{\"a\":1,\"b\":[\"x\",\"y\"],\"d\":[{\"c\":true}]}");
+
+        StringBuilder pretty = new StringBuilder();
+        file.writeTo(pretty, JsonStyle.pretty(4), 0);
+        Assert.assertEquals(pretty.toString(), "{\n    \"a\": 1,\n    \"b\": [\"x\", \"y\"],\n    \"d\": [\n"
+                + "        {\n            \"c\": true\n        }\n    ]\n}");
+    }
+
+    @Test
+    public void testWriteToBytes() throws IOException {
+        JsonFile file = new JsonFile("bytes");
+        file.add("text", "\u00e4\u20ac\ud83d\ude00");
+        String[] strings = new String[20000];
+        Arrays.fill(strings, "\u00f6ljy");
+        file.addArray("long", strings);
+
+        StringBuilder expected = new StringBuilder();
+        file.writeTo(expected, JsonStyle.PRETTY, 0);
+        expected.append('\n');
+        byte[] bytes = expected.toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        file.writeTo(stream);
+        Assert.assertArrayEquals(stream.toByteArray(), bytes);
+
+        ByteArrayOutputStream channelStream = new ByteArrayOutputStream();
+        file.writeTo(Channels.newChannel(channelStream));
+        Assert.assertArrayEquals(channelStream.toByteArray(), bytes);
+    }
+
+    @Test
+    public void testEncodedKeys() throws IOException {
+        JsonFile file = new JsonFile("keys");
+        StringUnit text = new StringUnit("\u00e4", "value");
+        file.add(text);
+        file.add("number", 1);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        file.writeTo(stream, JsonStyle.MINIFIED);
+        Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8),
+                "{\"\u00e4\":\"value\",\"number\":1}");
+
+        text.setKey("renamed");
+        stream.reset();
+        file.writeTo(stream, JsonStyle.MINIFIED);
+        Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8),
+                "{\"renamed\":\"value\",\"number\":1}");
+    }
+
+    @Test
+    public void testEscaping() throws IOException {
+        String text = "say \"hi\" \\ tab\tline\nbell\u0007 \u00e4\ud83d\ude00";
+        JsonFile file = new JsonFile("escaped");
+        file.add("key \"quoted\"", text);
+        file.addArray("items", "milk\n2 l", "\"bread\"");
+
+        String expected = "{\"key \\\"quoted\\\"\": \"say \\\"hi\\\" \\\\ tab\\tline\\nbell\\u0007 "
+                + "\u00e4\ud83d\ude00\", \"items\": [\"milk\\n2 l\", \"\\\"bread\\\"\"]}";
+        Assert.assertEquals(file.toString(), expected);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        file.writeTo(stream, JsonStyle.MINIFIED);
+        JsonFile read = new JsonReader(new ByteArrayInputStream(stream.toByteArray())).readFile("escaped");
+        Assert.assertEquals(read.toString(), expected);
+        Assert.assertEquals(((StringUnit) read.get("key \"quoted\"")).getValue(), text);
+
+        JsonFile lone = new JsonFile("lone");
+        lone.add("v", "\ud83dx\ud83d\n");
+        stream.reset();
+        lone.writeTo(stream, JsonStyle.MINIFIED);
+        Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8),
+                "{\"v\":\"?x?\\n\"}");
+    }
+
+    @Test
+    public void testWriteAsync() throws Exception {
+        JsonFile file = new JsonFile("async");
+
+        for (int i = 0; i < 1000; i++) {
+            file.add("item" + i, "amount " + i);
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        file.writeTo(expected);
+
+        Path path = Files.createTempFile("async", ".json");
+        List<Double> progress = new ArrayList<Double>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            CompletableFuture<Void> future = file.writeAsync(path, JsonStyle.PRETTY, executor,
+                    progress::add);
+            file.clear();
+            future.get();
+
+            Assert.assertArrayEquals(Files.readAllBytes(path), expected.toByteArray());
+            Assert.assertEquals(progress.size(), 100);
+            Assert.assertEquals(progress.get(99), 1.0, 0);
+
+            CompletableFuture<Void> failed = file.writeAsync(
+                    path.resolve("missing").resolve("file.json"), executor);
+
+            try {
+                failed.get();
+                Assert.fail("Writing to a missing directory should fail");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof UncheckedIOException);
+            }
+        } finally {
+            executor.shutdown();
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testIndex() {
+        JsonFile file = new JsonFile("index");
+
+        for (int i = 0; i < 1000; i++) {
+            file.add("key" + i, i);
+        }
+
+        for (int i = 0; i < 1000; i += 2) {
+            Assert.assertEquals(file.remove("key" + i).getKey(), "key" + i);
+        }
+
+        Assert.assertEquals(file.remove(0).getKey(), "key1");
+        Assert.assertNull(file.remove("key0"));
+
+        for (int i = 3; i < 1000; i++) {
+            Assert.assertEquals(file.alreadyUsed("key" + i), i % 2 == 1);
+            Assert.assertEquals(file.get("key" + i) == null, i % 2 == 0);
+        }
+
+        Assert.assertEquals(file.getUnits().size(), 499);
+        file.clear();
+        Assert.assertFalse(file.alreadyUsed("key3"));
+        file.add("key3", "again");
+        Assert.assertEquals(((StringUnit) file.get("key3")).getValue(), "again");
+    }
+
+    @Test
+    public void testRenameAfterAdd() {
+        JsonFile file = new JsonFile("rename");
+        StringUnit unit = new StringUnit("old", "v");
+        file.add(unit);
+        file.add("taken", 1);
+        unit.setKey("new");
+
+        Assert.assertNull(file.get("old"));
+        Assert.assertSame(file.get("new"), unit);
+        Assert.assertFalse(file.alreadyUsed("old"));
+
+        try {
+            file.add("new", "dup");
+            Assert.fail("The new key should be in use");
+        } catch (RuntimeException e) {
+            Assert.assertEquals(file.toString(), "{\"new\": \"v\", \"taken\": 1}");
+        }
+
+        try {
+            unit.setKey("taken");
+            Assert.fail("Renaming to a used key should fail");
+        } catch (RuntimeException e) {
+            Assert.assertEquals(unit.getKey(), "new");
+        }
+
+        ObjectUnit object = new ObjectUnit("object", new ArrayList<JsonUnit>());
+        NumberUnit number = new NumberUnit("a", 1);
+        object.add(number);
+        number.setKey("b");
+        Assert.assertSame(object.get("b"), number);
+        Assert.assertNull(object.get("a"));
+
+        file.remove("new");
+        unit.setKey("old");
+        Assert.assertNull(file.get("old"));
+    }
+
+    @Test
+    public void testIntegerArrayIsDoubleArray() {
+        JsonFile file = new JsonFile("numbers");
+        file.addArray("ints", 1, 2);
+        Assert.assertTrue(file.get("ints") instanceof DoubleArrayUnit);
+        Assert.assertEquals(file.toString(), "{\"ints\": [1, 2]}");
+    }
+}
@@ -0,0 +1,90 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class JsonPathTest {
+    JsonFile read(String json) throws IOException {
+        try (JsonReader reader = new JsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+            return reader.readFile("test");
+        }
+    }
+
+    @Test
+    public void testPointer() throws IOException {
+        // The example of RFC 6901, section 5.
+        JsonFile file = read("{\"foo\": [\"bar\", \"baz\"], \"\": 0, \"a/b\": 1, \"c%d\": 2, \"e^f\": 3,"
+                + " \"g|h\": 4, \"i\\\\j\": 5, \"k\\\"l\": 6, \" \": 7, \"m~n\": 8}");
+
+        Assert.assertSame(JsonPath.pointer("").get(file), file);
+        Assert.assertEquals(JsonPath.pointer("/foo").get(file).toString(), "\"foo\": [\"bar\", \"baz\"]");
+        Assert.assertEquals(JsonPath.pointer("/foo/0").get(file), "bar");
+        Assert.assertEquals(JsonPath.pointer("/").get(file), 0.0);
+        Assert.assertEquals(JsonPath.pointer("/a~1b").get(file), 1.0);
+        Assert.assertEquals(JsonPath.pointer("/c%d").get(file), 2.0);
+        Assert.assertEquals(JsonPath.pointer("/e^f").get(file), 3.0);
+        Assert.assertEquals(JsonPath.pointer("/g|h").get(file), 4.0);
+        Assert.assertEquals(JsonPath.pointer("/i\\j").get(file), 5.0);
+        Assert.assertEquals(JsonPath.pointer("/k\"l").get(file), 6.0);
+        Assert.assertEquals(JsonPath.pointer("/ ").get(file), 7.0);
+        Assert.assertEquals(JsonPath.pointer("/m~0n").get(file), 8.0);
+        Assert.assertEquals(JsonPath.pointer("/" + JsonPath.escape("a/b")).get(file), 1.0);
+
+        Assert.assertFalse(JsonPath.pointer("/foo/2").exists(file));
+        Assert.assertFalse(JsonPath.pointer("/foo/-").exists(file));
+        Assert.assertFalse(JsonPath.pointer("/foo/01").exists(file));
+        Assert.assertFalse(JsonPath.pointer("/missing/0").exists(file));
+        Assert.assertFalse(JsonPath.pointer("/*").exists(file));
+        Assert.assertTrue(JsonPath.pointer("/foo/1").isSingular());
+
+        for (String bad : Arrays.asList("foo", "/m~2n", "/m~")) {
+            try {
+                JsonPath.pointer(bad);
+                Assert.fail(bad + " should not compile");
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getMessage().startsWith("Bad path"));
+            }
+        }
+    }
+
+    @Test
+    public void testWildcardsAndFilters() throws IOException {
+        JsonFile file = read("{\"records\": [{\"type\": \"food\", \"price\": 3, \"name\": \"bread\"},"
+                + " {\"type\": \"tool\", \"price\": 30},"
+                + " {\"type\": \"food\", \"price\": 12.5, \"name\": \"cheese\"},"
+                + " {\"price\": null}],"
+                + " \"prices\": [5, 15, 25], \"flags\": [true, false, true],"
+                + " \"inner\": {\"a\": {\"x\": 1}, \"b\": {\"x\": 2}, \"c\": {\"y\": 3}}, \"nothing\": null}");
+
+        Assert.assertEquals(JsonPath.compile("/records/*/price").getAll(file), Arrays.asList(3.0, 30.0, 12.5, null));
+        Assert.assertEquals(JsonPath.compile("/records/?type=food/name").getAll(file),
+                Arrays.asList("bread", "cheese"));
+        Assert.assertEquals(JsonPath.compile("/records/?type!=food/price").getAll(file), Arrays.asList(30.0));
+        Assert.assertEquals(JsonPath.compile("/records/?price>=12.5/type").getAll(file),
+                Arrays.asList("tool", "food"));
+        Assert.assertEquals(JsonPath.compile("/records/?name/name").getAll(file), Arrays.asList("bread", "cheese"));
+        Assert.assertEquals(JsonPath.compile("/records/?price=null").getAll(file).size(), 1);
+        Assert.assertEquals(JsonPath.compile("/prices/?@>10").getAll(file), Arrays.asList(15.0, 25.0));
+        Assert.assertEquals(JsonPath.compile("/flags/?@=true").getAll(file).size(), 2);
+        Assert.assertEquals(JsonPath.compile("/inner/*/x").getAll(file), Arrays.asList(1.0, 2.0));
+        Assert.assertEquals(JsonPath.compile("/inner/?x<2/x").get(file), 1.0);
+        Assert.assertEquals(JsonPath.compile("/records/?type=\"tool\"/price").get(file), 30.0);
+        Assert.assertEquals(JsonPath.compile("/records/1/price").get(file), 30.0);
+
+        Assert.assertTrue(JsonPath.compile("/nothing").exists(file));
+        Assert.assertNull(JsonPath.compile("/nothing").get(file));
+        Assert.assertTrue(JsonPath.compile("/nothing").getUnit(file) instanceof StringUnit);
+        Assert.assertFalse(JsonPath.compile("/records/?type=drink").exists(file));
+        Assert.assertFalse(JsonPath.compile("/records/*").isSingular());
+
+        try {
+            JsonPath.compile("/records/?=food");
+            Assert.fail("A filter without a key should not compile");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Bad path"));
+        }
+    }
+}
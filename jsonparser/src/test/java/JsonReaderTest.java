@@ -0,0 +1,161 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class JsonReaderTest {
+    JsonReader reader(String json) {
+        return new JsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testTokens() throws IOException {
+        JsonReader reader = reader("{\"a\": [1, \"b\", true, null]}");
+        Assert.assertEquals(reader.next(), JsonToken.BEGIN_OBJECT);
+        Assert.assertEquals(reader.peek(), JsonToken.NAME);
+        Assert.assertEquals(reader.next(), JsonToken.NAME);
+        Assert.assertEquals(reader.getString(), "a");
+        Assert.assertEquals(reader.next(), JsonToken.BEGIN_ARRAY);
+        Assert.assertEquals(reader.next(), JsonToken.NUMBER);
+        Assert.assertEquals(reader.getNumber(), 1, 0);
+        Assert.assertEquals(reader.next(), JsonToken.STRING);
+        Assert.assertEquals(reader.getString(), "b");
+        Assert.assertEquals(reader.next(), JsonToken.BOOLEAN);
+        Assert.assertTrue(reader.getBoolean());
+        Assert.assertEquals(reader.next(), JsonToken.NULL);
+        Assert.assertEquals(reader.next(), JsonToken.END_ARRAY);
+        Assert.assertEquals(reader.next(), JsonToken.END_OBJECT);
+        Assert.assertEquals(reader.next(), JsonToken.END_DOCUMENT);
+    }
+
+    @Test
+    public void testReadFile() throws IOException {
+        JsonFile file = reader("{\"string\": \"string\", \"boolean\": true, \"double\": 3.24, "
+                + "\"integer\": 3, \"object\": {\"PI\": 3.14159265}, \"strings\": [\"a\", \"b\"]}")
+                .readFile("file");
+        Assert.assertEquals(file.getName(), "file");
+        Assert.assertEquals(file.toString(), "{\"string\": \"string\", \"boolean\": true, \"double\": 3.24, "
+                + "\"integer\": 3, \"object\": {\"PI\": 3.14159265}, \"strings\": [\"a\", \"b\"]}");
+    }
+
+    @Test
+    public void testNumbers() throws IOException {
+        JsonReader reader = reader("[0, -0.5, 1e3, 2.5E-3, 12345678901234567890, 0.1]");
+        reader.next();
+        double[] expected = {0, -0.5, 1e3, 2.5E-3, 12345678901234567890.0, 0.1};
+
+        for (double value : expected) {
+            reader.next();
+            Assert.assertEquals(reader.getNumber(), value, 0);
+        }
+    }
+
+    @Test
+    public void testEscapesAndUnicode() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader("\"a\\\"b\\\\c\\n\\u00e4 \u00f6 \ud83d\ude00\""));
+        reader.next();
+        Assert.assertEquals(reader.getString(), "a\"b\\c\n\u00e4 \u00f6 \ud83d\ude00");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMissingComma() throws IOException {
+        reader("{\"a\": 1 \"b\": 2}").readFile("file");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnterminatedString() throws IOException {
+        reader("{\"a\": \"b").readFile("file");
+    }
+
+    @Test
+    public void testMappedWindows() throws IOException {
+        String json = "{\"text\": \"\u00e4\u20ac\ud83d\ude00 \\u00f6\", \"numbers\": [12.5, -3e2, 123456789], "
+                + "\"object\": {\"flag\": false}}";
+        Path path = Files.createTempFile("mapped", ".json");
+
+        try {
+            Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+            String expected = reader(json).readFile("mapped").toString();
+
+            for (int window = 1; window < 12; window++) {
+                try (JsonReader reader = new JsonReader(FileChannel.open(path), window)) {
+                    Assert.assertEquals(reader.readFile("mapped").toString(), expected);
+                    Assert.assertEquals(reader.peek(), JsonToken.END_DOCUMENT);
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testInterning() throws IOException {
+        JsonReader reader = reader("{\"records\": [{\"na\\u006de\": \"open\", \"\u00e4\": 1}, "
+                + "{\"name\": \"open\", \"\u00e4\": 2}, {\"name\": \"open\", \"\u00e4\": 3}]}");
+        reader.setInternValues(true);
+        List<?> records = ((ArrayUnit<?>) reader.readFile("file").get("records")).getValues();
+        StringUnit second = (StringUnit) ((JsonFile) records.get(1)).getUnits().get(0);
+        StringUnit third = (StringUnit) ((JsonFile) records.get(2)).getUnits().get(0);
+
+        Assert.assertEquals(((JsonFile) records.get(0)).getUnits().get(0).getKey(), "name");
+        Assert.assertSame(second.getKey(), third.getKey());
+        Assert.assertSame(second.getValue(), third.getValue());
+        Assert.assertSame(((JsonFile) records.get(1)).getUnits().get(1).getKey(),
+                ((JsonFile) records.get(2)).getUnits().get(1).getKey());
+        Assert.assertEquals(((JsonFile) records.get(2)).getUnits().get(1).getKey(), "\u00e4");
+    }
+
+    @Test
+    public void testReadInto() throws IOException {
+        String[] records = {
+            "{\"id\": 1, \"name\": \"a\", \"tags\": [\"x\"], \"scores\": [1, 2], \"inner\": {\"ok\": true}, \"rows\": [{\"v\": 1}]}",
+            "{\"id\": 2, \"name\": \"b\", \"tags\": [\"y\", \"z\"], \"scores\": [3], \"inner\": {\"ok\": false}, \"rows\": [{\"v\": 2}, {\"v\": 3}]}",
+            "{\"id\": \"three\", \"scores\": [true], \"inner\": null, \"extra\": [1, \"mixed\"]}",
+            "{}",
+            "{\"id\": 5, \"name\": null}"
+        };
+
+        StringBuilder all = new StringBuilder();
+
+        for (String record : records) {
+            all.append(record).append('\n');
+        }
+
+        JsonFile file = new JsonFile("record");
+        JsonUnit id = null;
+        JsonUnit name = null;
+
+        try (JsonReader reader = reader(all.toString())) {
+            for (int i = 0; i < records.length; i++) {
+                Assert.assertSame(reader.readInto(file), file);
+                Assert.assertEquals(file.toString(), reader(records[i]).readFile("record").toString());
+
+                if (i == 1) {
+                    Assert.assertSame(file.get("id"), id);
+                    Assert.assertSame(file.get("name"), name);
+                }
+
+                id = file.get("id");
+                name = file.get("name");
+            }
+        }
+
+        Assert.assertEquals(file.getName(), "record");
+        Assert.assertNull(file.get("scores"));
+        Assert.assertEquals(((StringUnit) file.get("name")).getValue(), null);
+
+        try {
+            reader("{\"a\": 1, \"a\": 2}").readInto(file);
+            Assert.fail("Duplicate keys should fail");
+        } catch (RuntimeException e) {
+            Assert.assertEquals(e.getMessage(), "Can't add new unit with already existing key.");
+        }
+    }
+}
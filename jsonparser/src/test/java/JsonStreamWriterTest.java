@@ -0,0 +1,60 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class JsonStreamWriterTest {
+    String write(JsonStyle style) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonStreamWriter writer = new JsonStreamWriter(bytes, style);
+        writer.beginObject();
+        writer.name("a").value(1);
+        writer.name("b").beginArray().value("x").value("y").endArray();
+        writer.name("d").beginArray();
+        writer.beginObject().name("c").value(true).endObject();
+        writer.beginObject().endObject();
+        writer.endArray();
+        writer.unit(new StringUnit("e", "unit"));
+        writer.endObject();
+        writer.close();
+
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSameAsTree() throws IOException {
+        JsonFile file = new JsonFile("tree");
+        file.add("a", 1);
+        file.addArray("b", "x", "y");
+        JsonFile element = new JsonFile("element");
+        element.add("c", true);
+        file.addArray("d", element, new JsonFile("empty"));
+        file.add("e", "unit");
+
+        for (JsonStyle style : new JsonStyle[] {JsonStyle.PRETTY, JsonStyle.MINIFIED, JsonStyle.pretty(4)}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            file.writeTo(bytes, style);
+            Assert.assertEquals(write(style), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testDuplicateKey() throws IOException {
+        JsonStreamWriter writer = new JsonStreamWriter(new ByteArrayOutputStream());
+        writer.beginObject().name("a").value(1).name("a");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testWrongNesting() throws IOException {
+        JsonStreamWriter writer = new JsonStreamWriter(new ByteArrayOutputStream());
+        writer.beginObject().endArray();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testValueWithoutName() throws IOException {
+        JsonStreamWriter writer = new JsonStreamWriter(new ByteArrayOutputStream());
+        writer.beginObject().value(1);
+    }
+}
@@ -0,0 +1,93 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class LazyJsonFileTest {
+    static final String JSON = "{\"string\": \"a\\\"b\", \"\\u00e4\": 1.5, \"object\": {\"list\": [1, 2]},"
+            + " \"files\": [{\"x\": true}, {\"y\": null}], \"flags\": [true, false]}";
+
+    LazyJsonFile lazy(String json) {
+        return new LazyJsonFile("lazy", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSameAsReader() throws IOException {
+        JsonFile eager = new JsonReader(new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8)))
+                .readFile("eager");
+        LazyJsonFile file = lazy(JSON);
+        Assert.assertEquals(file.size(), 5);
+        Assert.assertEquals(((NumberUnit) file.get("\u00e4")).getValue(), 1.5, 0);
+        Assert.assertEquals(((StringUnit) file.get("string")).getValue(), "a\"b");
+        Assert.assertNull(file.get("missing"));
+        Assert.assertEquals(file.toString(), eager.toString());
+        Assert.assertEquals(file.getUnits().size(), 5);
+    }
+
+    @Test
+    public void testOnlyAccessedValuesDecoded() {
+        LazyJsonFile file = lazy("{\"good\": \"value\", \"bad\": [1, tru]}");
+        Assert.assertEquals(((StringUnit) file.get("good")).getValue(), "value");
+
+        try {
+            file.get("bad");
+            Assert.fail("Decoding a bad value should fail");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("offset"));
+        }
+    }
+
+    @Test
+    public void testFailedMaterializeStaysLazy() {
+        LazyJsonFile file = lazy("{\"a\": 1, \"b\": tru, \"c\": 2}");
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                file.getUnits();
+                Assert.fail("Decoding a bad value should fail every time");
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("offset"));
+            }
+        }
+
+        Assert.assertEquals(file.size(), 3);
+        Assert.assertEquals(((NumberUnit) file.get("c")).getValue(), 2, 0);
+    }
+
+    @Test
+    public void testTrailingGarbage() {
+        LazyJsonFile file = lazy("{\"a\": 12z, \"b\": truex, \"c\": nullx, \"d\": \"ok\" }");
+        Assert.assertEquals(((StringUnit) file.get("d")).getValue(), "ok");
+
+        for (String key : new String[] {"a", "b", "c"}) {
+            try {
+                file.get(key);
+                Assert.fail(key + " should not decode");
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Expected ',' or '}' at offset"));
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedKey() {
+        byte[] json = {'{', '"', 'k', (byte) 0xC3, '"', ':', '1', ',', '"', (byte) 0xC3, (byte) 0xA4, '"', ':', '2', '}'};
+
+        try {
+            new LazyJsonFile("lazy", json);
+            Assert.fail("A key with malformed UTF-8 should be rejected");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Malformed UTF-8 at offset"));
+        }
+
+        json[3] = 'x';
+        Assert.assertEquals(((NumberUnit) new LazyJsonFile("lazy", json).get("\u00e4")).getValue(), 2, 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testBadStructure() {
+        lazy("{\"a\": 1 \"b\": 2}");
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class NdjsonTest {
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<String> expected = new ArrayList<String>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (NdjsonWriter writer = new NdjsonWriter(bytes, 100)) {
+            for (int i = 0; i < 5000; i++) {
+                JsonFile record = new JsonFile("record");
+                record.add("id", i);
+                record.add("name", "item \u00e4 " + i);
+                record.addArray("tags", "a", "b");
+                writer.write(record);
+                expected.add(record.toString());
+            }
+        }
+
+        byte[] data = bytes.toByteArray();
+        String text = new String(data, StandardCharsets.UTF_8);
+        Assert.assertEquals(text.split("\n").length, 5000);
+        Assert.assertTrue(text.startsWith("{\"id\":0,\"name\":\"item \u00e4 0\",\"tags\":[\"a\",\"b\"]}\n"));
+
+        List<String> read = new ArrayList<String>();
+
+        try (NdjsonReader reader = new NdjsonReader(new ByteArrayInputStream(data), "record")) {
+            while (reader.hasNext()) {
+                read.add(reader.next().toString());
+            }
+        }
+
+        Assert.assertEquals(read, expected);
+
+        List<String> parallel = NdjsonReader.parallelStream(ByteBuffer.wrap(data), "record")
+                .map(JsonFile::toString)
+                .collect(Collectors.toList());
+        Assert.assertEquals(parallel, expected);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        try (NdjsonReader reader = new NdjsonReader(new ByteArrayInputStream(new byte[0]), "record")) {
+            Assert.assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testOneRecordPerLine() throws IOException {
+        String good = "{\"a\": 1} \r\n\n  {\"b\": [1, 2]}\t\n{\"c\": 3}";
+        List<String> read = new ArrayList<String>();
+
+        try (NdjsonReader reader = reader(good)) {
+            while (reader.hasNext()) {
+                read.add(reader.next().toString());
+            }
+        }
+
+        Assert.assertEquals(read.size(), 3);
+        Assert.assertEquals(NdjsonReader.parallelStream(ByteBuffer.wrap(good.getBytes(StandardCharsets.UTF_8)),
+                "record").map(JsonFile::toString).collect(Collectors.toList()), read);
+
+        for (String bad : new String[] {"{\"a\": 1}{\"b\": 2}\n", "{\"a\": 1}\n{\"c\":\n3}\n"}) {
+            try (NdjsonReader reader = reader(bad)) {
+                reader.next();
+                reader.next();
+                Assert.fail(bad + " should not be read");
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("line break at offset"));
+            }
+
+            try {
+                NdjsonReader.parallelStream(ByteBuffer.wrap(bad.getBytes(StandardCharsets.UTF_8)), "record")
+                        .count();
+                Assert.fail(bad + " should not be read in parallel");
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("line break at offset"));
+            }
+        }
+    }
+
+    NdjsonReader reader(String text) {
+        return new NdjsonReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), "record");
+    }
+}
@@ -0,0 +1,71 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class ParallelJsonReaderTest {
+    @Test
+    public void testSameAsReader() throws IOException {
+        JsonFile file = new JsonFile("records");
+        file.add("title", "export");
+        JsonFile[] records = new JsonFile[500];
+
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new JsonFile("record");
+            records[i].add("id", i);
+            records[i].add("name", "item \u00e4 " + i);
+            records[i].addArray("tags", "a", "b");
+        }
+
+        file.addArray("records", records);
+        file.addArray("mixed", Arrays.asList(new JsonFile("first"), "second"));
+        file.addArray("numbers", 1, 2, 3);
+        byte[] bytes = file.toString().getBytes(StandardCharsets.UTF_8);
+
+        String expected = new JsonReader(new ByteArrayInputStream(bytes)).readFile("records").toString();
+
+        try (ParallelJsonReader reader = new ParallelJsonReader(4)) {
+            reader.setThreshold(1);
+            Assert.assertEquals(reader.readFile("records", bytes).toString(), expected);
+            reader.setThreshold(ParallelJsonReader.DEFAULT_THRESHOLD);
+            Assert.assertEquals(reader.readFile("records", bytes).toString(), expected);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testBadRecord() {
+        try (ParallelJsonReader reader = new ParallelJsonReader(2)) {
+            reader.setThreshold(1);
+            reader.readFile("bad", "{\"records\": [{\"a\": 1}, {\"b\": tru}]}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testTrailingGarbageRejected() throws IOException {
+        StringBuilder json = new StringBuilder("{\"records\": [");
+
+        for (int i = 0; i < 2000; i++) {
+            json.append(i == 0 ? "" : ", ").append("{\"id\": ").append(i).append('}');
+        }
+
+        byte[] bytes = json.append("], \"bad\": 12z}").toString().getBytes(StandardCharsets.UTF_8);
+
+        try {
+            new JsonReader(new ByteArrayInputStream(bytes)).readFile("x");
+            Assert.fail("JsonReader should reject 12z");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Expected ',' or '}'"));
+        }
+
+        try (ParallelJsonReader reader = new ParallelJsonReader(4)) {
+            reader.setThreshold(1);
+            reader.readFile("x", bytes);
+            Assert.fail("ParallelJsonReader should reject 12z");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Expected ',' or '}'"));
+        }
+    }
+}
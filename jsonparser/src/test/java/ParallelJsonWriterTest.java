@@ -0,0 +1,76 @@
+import org.junit.Test;
+import org.junit.Assert;
+import fi.esupponen.jsonparser.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ParallelJsonWriterTest {
+    @Test
+    public void testSameAsSequential() throws IOException {
+        JsonFile file = new JsonFile("records");
+        file.add("title", "export");
+        JsonFile[] records = new JsonFile[5000];
+
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new JsonFile("record");
+            records[i].add("id", i);
+            records[i].add("name", "item \u00e4 " + i);
+            records[i].addArray("tags", "a", "b");
+        }
+
+        file.addArray("records", records);
+        file.addArray("numbers", 1, 2, 3);
+        Path path = Files.createTempFile("parallel", ".json");
+
+        try (ParallelJsonWriter writer = new ParallelJsonWriter(3)) {
+            writer.setThreshold(1);
+
+            for (JsonStyle style : new JsonStyle[] {JsonStyle.PRETTY, JsonStyle.MINIFIED}) {
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                file.writeTo(expected, style);
+
+                ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                writer.write(file, stream, style);
+                Assert.assertArrayEquals(stream.toByteArray(), expected.toByteArray());
+
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    writer.write(file, channel, style);
+                }
+
+                Assert.assertArrayEquals(Files.readAllBytes(path), expected.toByteArray());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testParse() throws IOException {
+        Path directory = Files.createTempDirectory("parallel");
+        JsonFile file = new JsonFile(directory.resolve("parsed").toString());
+        JsonFile[] records = new JsonFile[ParallelJsonWriter.DEFAULT_THRESHOLD + 1];
+
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new JsonFile("record");
+            records[i].add("id", i);
+        }
+
+        file.addArray("records", records);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        file.writeTo(expected);
+        Path path = directory.resolve("parsed.json");
+
+        try {
+            file.parse();
+            Assert.assertArrayEquals(Files.readAllBytes(path), expected.toByteArray());
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(directory);
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package fi.esupponen.shoppinglist;
 
 import fi.esupponen.jsonparser.JsonFile;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import fi.esupponen.jsonparser.JsonReader;
+import fi.esupponen.jsonparser.JsonToken;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.LinkedList;
 
 /**
  * @author      Essi Supponen [essi.supponen@cs.tamk.fi]
- * @version     2018-1218
+ * @version     2026-1018
  * @since       2018-1217
  */
 public class FileOpener {
 
+    /**
+     * Files at least this large are mapped to memory instead of read.
+     */
+    static final long MAP_THRESHOLD = 1 << 20;
+
     /**
      * Removes all the elements that dont have ':' from given list.
      *
@@ -21,7 +30,9 @@ public class FileOpener {
      *
      * @param   list    list to be trimmed
      * @return          list without extra lines
+     * @deprecated      readFile() no longer reads the file line by line.
      */
+    @Deprecated
     static public LinkedList<String> trimExtraLines(LinkedList<String> list) {
         for (int i = list.size() - 1; i >= 0; i--) {
             if (!list.get(i).contains(":")) {
@@ -41,7 +52,9 @@ public class FileOpener {
      *
      * @param   str     string to be trimmed
      * @return          substring between quotationmarks
+     * @deprecated      readFile() no longer reads the file line by line.
      */
+    @Deprecated
     static public String trimQuotationMarks(String str) {
         int firstMark = str.indexOf("\"");
         int lastMark = str.lastIndexOf("\"");
@@ -64,7 +77,9 @@ public class FileOpener {
      * @param   list    list of lines from the source file
      * @param   name    name for the created JsonFile object
      * @return          JsonFile object
+     * @deprecated      Use readFile(), which reads every kind of value.
      */
+    @Deprecated
     static public JsonFile parseJsonFile(LinkedList<String> list, String name) {
         JsonFile file = new JsonFile(name);
 
@@ -82,21 +97,21 @@ public class FileOpener {
      * Reads a file and return JsonFile object representing it.
      *
      * Checks if given file is JSON-file. If not, throws an exception. Takes
-     * the name of the given file. Creates a list and adds every line from the
-     * file to it. Uses trimExtraLines() to get rid of extra lines and then
-     * uses  parseJsonFile() with the lsit and the name.
+     * the name of the given file. Reads the file with JsonReader, which
+     * streams it in one pass and keeps every type of value. Files of
+     * MAP_THRESHOLD bytes or more are mapped to memory and tokenized without
+     * copying them to the heap. Throws a runtime exception if the file is
+     * not valid JSON or has something after the top-level object.
      *
      * @param   path    full path to the JSON-file
      * @return          JsonFile presentation of given file
-     * @throws  IOException
+     * @throws  IOException if the file can't be read
      */
     static public JsonFile readFile(String path) throws IOException {
         if (!path.endsWith(".json")) {
             throw new RuntimeException("Given file was not a JSON-file!");
         }
 
-        LinkedList<String> lines = new LinkedList<>();
-        BufferedReader reader;
         String name = "";
 
         if (path.lastIndexOf("/") != -1) {
@@ -105,22 +120,28 @@ public class FileOpener {
             name = path.substring(path.lastIndexOf("\\") + 1, path.length() - 5);
         }
 
-        try {
-            reader = new BufferedReader(new FileReader(path));
-            String line = reader.readLine();
+        FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        JsonReader opened;
 
-            while (line != null) {
-                lines.add(line);
-                line = reader.readLine();
+        try {
+            if (channel.size() >= MAP_THRESHOLD) {
+                opened = new JsonReader(channel);
+            } else {
+                opened = new JsonReader(Channels.newInputStream(channel));
             }
-
-            reader.close();
         } catch (IOException e) {
-            System.out.println("No such file found");
+            channel.close();
+            throw e;
         }
 
-        lines = trimExtraLines(lines);
+        try (JsonReader reader = opened) {
+            JsonFile file = reader.readFile(name);
+
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new RuntimeException("Unexpected content after the end of the file.");
+            }
 
-        return parseJsonFile(lines, name);
+            return file;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package fi.esupponen.shoppinglist;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
 import javafx.scene.Node;
@@ -14,22 +15,33 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.text.TextAlignment;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.geometry.HPos;
 import javafx.event.*;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 
+import fi.esupponen.jsonparser.AutoSaver;
 import fi.esupponen.jsonparser.StringUnit;
+import fi.esupponen.jsonparser.ConcurrentJsonFile;
 import fi.esupponen.jsonparser.JsonFile;
+import fi.esupponen.jsonparser.JsonStyle;
+import fi.esupponen.jsonparser.JsonUnit;
 
 
 /**
  * @author      Essi Supponen [essi.supponen@cs.tamk.fi]
- * @version     2018-1218
+ * @version     2026-1018
  * @since       2018-1201
  */
 public class Gui extends Application {
@@ -77,9 +89,91 @@ public class Gui extends Application {
     GridPane bottomPart;
 
     /**
-     * JsonFile to save all the information.
+     * Shows how much of the file has been written while saving.
      */
-    JsonFile list;
+    ProgressBar saveProgress;
+
+    /**
+     * Thread writing the files, so the window stays responsive. Parsing
+     * and autosaving share it, so they never write at the same time.
+     */
+    ScheduledExecutorService saver = Executors.newSingleThreadScheduledExecutor((task) -> {
+        Thread thread = new Thread(task, "shoppinglist-saver");
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    /**
+     * JsonFile to save all the information. Concurrent, so it can be
+     * written in the background while the list is being edited.
+     */
+    ConcurrentJsonFile list;
+
+    /**
+     * Saves the changes to the parsed file, or null if the list has not
+     * been parsed yet.
+     */
+    AutoSaver autoSaver;
+
+    /**
+     * Tells autoSaver that the list has changed.
+     */
+    void listChanged() {
+        if (autoSaver != null) {
+            autoSaver.changed();
+        }
+    }
+
+    /**
+     * Starts saving the changes to given file, unless already doing so.
+     *
+     * @param   path    parsed file
+     */
+    private void startAutoSave(Path path) {
+        if (autoSaver != null && autoSaver.getPath().equals(path)) {
+            return;
+        }
+
+        stopAutoSave();
+        autoSaver = new AutoSaver(list, path, JsonStyle.PRETTY, 2, TimeUnit.SECONDS, saver);
+        autoSaver.setErrorHandler((error) -> Platform.runLater(() -> {
+            Alert failedAlert = new Alert(Alert.AlertType.WARNING);
+            failedAlert.setTitle("Autosave failed");
+            failedAlert.setHeaderText(null);
+            failedAlert.setContentText("Could not save " + path + ": " + error.getMessage());
+            failedAlert.show();
+        }));
+
+        // The list may have changed while it was being parsed.
+        autoSaver.changed();
+    }
+
+    /**
+     * Stops autosaving. The unsaved changes are saved on the saver thread,
+     * so the window doesn't wait for the disk.
+     */
+    private void stopAutoSave() {
+        if (autoSaver != null) {
+            AutoSaver old = autoSaver;
+            autoSaver = null;
+
+            saver.execute(() -> {
+                try {
+                    old.close();
+                } catch (IOException e) {
+                    System.err.println("Could not save " + old.getPath() + ": " + e.getMessage());
+                    Platform.runLater(() -> {
+                        Alert failedAlert = new Alert(Alert.AlertType.WARNING);
+                        failedAlert.setTitle("Autosave failed");
+                        failedAlert.setHeaderText(null);
+                        failedAlert.setContentText("Could not save " + old.getPath() + ": " + e.getMessage());
+                        failedAlert.show();
+                    });
+                }
+            });
+        }
+    }
 
     /**
      * Generates and returns button for adding an item to the list.
@@ -117,6 +211,7 @@ public class Gui extends Application {
                     // If nothing is wrong, adds the item to the list and
                     // clears the TextFields.
                     list.add(itemString, amountString);
+                    listChanged();
 
                     itemTextField.clear();
                     amountTextField.clear();
@@ -146,6 +241,7 @@ public class Gui extends Application {
             @Override
             public void handle(ActionEvent e) {
                 list.clear();
+                listChanged();
                 updateItemTable();
             }
         });
@@ -190,7 +286,16 @@ public class Gui extends Application {
             public void handle(ActionEvent e) {
                 try {
                     JsonFile file = FileOpener.readFile(pathField.getText());
-                    list = file;
+
+                    // The list shows only "item": "amount" -pairs.
+                    for (JsonUnit unit : file.getUnits()) {
+                        if (!(unit instanceof StringUnit)) {
+                            throw new RuntimeException("Every unit should be a StringUnit.");
+                        }
+                    }
+
+                    stopAutoSave();
+                    list = new ConcurrentJsonFile(file);
                     updateItemTable();
                     updateBottom();
                     stage.close();
@@ -353,7 +458,8 @@ public class Gui extends Application {
                     noInputAlert.setContentText("Amount input is empty.");
                     Optional<ButtonType> result = noInputAlert.showAndWait();
                 } else {
-                    ((StringUnit)list.getUnits().get(index)).setValue(amount);
+                    list.put(new StringUnit(list.getUnits().get(index).getKey(), amount));
+                    listChanged();
                     updateItemTable();
                 }
             }
@@ -412,34 +518,53 @@ public class Gui extends Application {
     /**
      * Generates and returns parseButton.
      *
-     * Creates a new button. When button is pressed parses the file. Shows an
-     * alert window to inform the user.
+     * Creates a new button. When button is pressed writes the file in the
+     * background while saveProgress shows how far it is. The button is
+     * disabled until the file is written. Shows an alert window to inform
+     * the user, with the reason if writing failed. Once the file is
+     * written, later changes to the list are saved to it automatically.
      *
      * @return  parseButton
      */
     private Button addParseButton() {
-        parseButton = new Button("PARSE FILE");
-        parseButton.setOnAction(new EventHandler<ActionEvent>() {
+        Button button = new Button("PARSE FILE");
+        button.setOnAction(new EventHandler<ActionEvent>() {
             @Override
             public void handle(ActionEvent e) {
-                try {
-                    list.parse();
-
-                    Alert noInputAlert = new Alert(Alert.AlertType.INFORMATION);
-                    noInputAlert.setTitle("File created");
-                    noInputAlert.setHeaderText(null);
-                    noInputAlert.setContentText("File " + list.getName() + ".json created!");
-                    Optional<ButtonType> result = noInputAlert.showAndWait();
-                } catch (Exception ex) {
-                    Alert noInputAlert = new Alert(Alert.AlertType.WARNING);
-                    noInputAlert.setTitle("File was not created");
-                    noInputAlert.setHeaderText(null);
-                    noInputAlert.setContentText("Something went wrong while parsing the file. Please check all your inputs and try again.");
-                    Optional<ButtonType> result = noInputAlert.showAndWait();
-                }
+                String fileName = list.getName() + ".json";
+                button.setDisable(true);
+                saveProgress.setProgress(0);
+                saveProgress.setVisible(true);
+
+                list.writeAsync(Paths.get(fileName), JsonStyle.PRETTY, saver,
+                        (progress) -> Platform.runLater(() -> saveProgress.setProgress(progress)))
+                    .whenComplete((result, error) -> Platform.runLater(() -> {
+                        button.setDisable(false);
+                        saveProgress.setVisible(false);
+
+                        if (error == null) {
+                            startAutoSave(Paths.get(fileName));
+
+                            Alert createdAlert = new Alert(Alert.AlertType.INFORMATION);
+                            createdAlert.setTitle("File created");
+                            createdAlert.setHeaderText(null);
+                            createdAlert.setContentText("File " + fileName + " created!");
+                            createdAlert.show();
+                        } else {
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause() : error;
+
+                            Alert failedAlert = new Alert(Alert.AlertType.WARNING);
+                            failedAlert.setTitle("File was not created");
+                            failedAlert.setHeaderText(null);
+                            failedAlert.setContentText("Could not write " + fileName + ": " + cause.getMessage());
+                            failedAlert.show();
+                        }
+                    }));
             }
         });
 
+        parseButton = button;
         parseButton.setMinHeight(40);
         BorderPane.setMargin(parseButton, new Insets(10,10,10,10));
         BorderPane.setAlignment(parseButton, Pos.CENTER);
@@ -505,6 +630,7 @@ public class Gui extends Application {
                     noInputAlert.setContentText("Bad filename. Chekc that your filename does not include any of these characters: /\\?%*:|\"<>.");
                     Optional<ButtonType> result = noInputAlert.showAndWait();
                 } else {
+                    stopAutoSave();
                     list.setName(newName);
                     updateBottom();
                 }
@@ -541,6 +667,7 @@ public class Gui extends Application {
         bottomPart.add(fileNameLabel, 0, 0, 4, 1);
         bottomPart.add(addParseButton(), 0, 1, 2, 1);
         bottomPart.add(renameButton, 2, 1, 2, 1);
+        bottomPart.add(saveProgress, 0, 2, 4, 1);
 
         GridPane.setHalignment(fileNameLabel, HPos.CENTER);
         GridPane.setHalignment(parseButton, HPos.RIGHT);
@@ -559,6 +686,10 @@ public class Gui extends Application {
         bottomPart.setPadding(new Insets(10, 10, 10, 10));
         bottomPart.setMinSize(300,0);
 
+        saveProgress = new ProgressBar(0);
+        saveProgress.setMaxWidth(Double.MAX_VALUE);
+        saveProgress.setVisible(false);
+
         ColumnConstraints column = new ColumnConstraints();
         column.setPercentWidth(25f);
         bottomPart.getColumnConstraints().add(column);
@@ -593,7 +724,7 @@ public class Gui extends Application {
      */
     @Override
     public void start(Stage stage) {
-        list = new JsonFile("shoppinglist");
+        list = new ConcurrentJsonFile("shoppinglist");
 
         Scene scene = new Scene(addLayout(), 640, 480);
 
@@ -605,6 +736,20 @@ public class Gui extends Application {
         stage.show();
     }
 
+    /**
+     * Saves the unsaved changes before the application exits.
+     *
+     * The saver thread is a daemon, so the last save is waited for here.
+     *
+     * @throws  InterruptedException if interrupted while waiting
+     */
+    @Override
+    public void stop() throws InterruptedException {
+        stopAutoSave();
+        saver.shutdown();
+        saver.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
     /**
      * Launces the application.
      *
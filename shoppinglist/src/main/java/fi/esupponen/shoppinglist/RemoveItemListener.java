@@ -4,7 +4,7 @@ import javafx.event.*;
 
 /**
  * @author      Essi Supponen [essi.supponen@cs.tamk.fi]
- * @version     2018-1217
+ * @version     2026-1018
  * @since       2018-1217
  */
 public class RemoveItemListener implements EventHandler<ActionEvent> {
@@ -37,7 +37,8 @@ public class RemoveItemListener implements EventHandler<ActionEvent> {
      */
     @Override
     public void handle(ActionEvent e) {
-        host.list.getUnits().remove(index);
+        host.list.remove(index);
+        host.listChanged();
         host.updateItemTable();
     }
 }
\ No newline at end of file